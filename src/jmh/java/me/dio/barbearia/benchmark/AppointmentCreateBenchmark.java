@@ -0,0 +1,100 @@
+package me.dio.barbearia.benchmark;
+
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.service.AppointmentService;
+import me.dio.barbearia.support.SlotDatasetGenerator;
+import me.dio.barbearia.util.BusinessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede {@link AppointmentService#create} com {@code contendersPerSlot} chamadas consecutivas
+ * disputando o mesmo horário: uma vence e as demais são rejeitadas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class AppointmentCreateBenchmark {
+
+    @Param({"1", "8"})
+    public int contendersPerSlot;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private List<SlotRow> slots;
+    private List<Long> clientIds;
+    private final AtomicLong ticket = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("create_benchmark_" + contendersPerSlot);
+        appointmentService = context.getBean(AppointmentService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        SlotDatasetGenerator generator = new SlotDatasetGenerator(jdbcTemplate, 1L);
+        List<Long> serviceIds = generator.ensureServices();
+        clientIds = generator.generateClients(1_000);
+        generator.generateSlots(LocalDate.now().plusDays(1), 1_500, LocalTime.of(8, 0), LocalTime.of(20, 0), 30, 0.0, serviceIds, List.of());
+        slots = jdbcTemplate.query("select id, date, start_time, service_id from available_time order by id",
+                (resultSet, row) -> new SlotRow(resultSet.getLong(1),
+                        LocalDateTime.of(resultSet.getDate(2).toLocalDate(), resultSet.getTime(3).toLocalTime()), resultSet.getLong(4)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void create(Blackhole blackhole) {
+        long current = ticket.getAndIncrement();
+        SlotRow slot = slots.get((int) ((current / contendersPerSlot) % slots.size()));
+        try {
+            blackhole.consume(appointmentService.create(newAppointment(slot, clientIds.get((int) (current % clientIds.size())))));
+        } catch (BusinessException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    private static Appointment newAppointment(SlotRow slot, Long clientId) {
+        Client client = new Client();
+        client.setId(clientId);
+        ServiceBarber serviceBarber = new ServiceBarber();
+        serviceBarber.setId(slot.serviceId());
+        AvailableTime availableTime = new AvailableTime();
+        availableTime.setId(slot.id());
+
+        Appointment appointment = new Appointment();
+        appointment.setDateTime(slot.start());
+        appointment.setClient(client);
+        appointment.setServiceBarber(serviceBarber);
+        appointment.setAvailableTime(availableTime);
+        return appointment;
+    }
+
+    private record SlotRow(Long id, LocalDateTime start, Long serviceId) {
+    }
+}
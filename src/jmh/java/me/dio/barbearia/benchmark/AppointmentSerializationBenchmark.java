@@ -0,0 +1,80 @@
+package me.dio.barbearia.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a serialização JSON de listas de agendamentos completos (cliente, serviço e horário), como
+ * em {@code GET /appointments}, com o mesmo ObjectMapper configurado pelo Spring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AppointmentSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int appointments;
+
+    private ObjectMapper objectMapper;
+    private List<Appointment> graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ServiceBarber serviceBarber = new ServiceBarber(ServiceType.COMBO);
+        serviceBarber.setId(3L);
+
+        graph = new ArrayList<>(appointments);
+        LocalDate date = LocalDate.now().plusDays(1);
+        for (int i = 0; i < appointments; i++) {
+            Client client = new Client();
+            client.setId((long) i);
+            client.setName("Cliente " + i);
+            client.setCpf("52998224725");
+            client.setPhone("11999999999");
+
+            AvailableTime availableTime = new AvailableTime();
+            availableTime.setId((long) i);
+            availableTime.setDate(date.plusDays(i / 24));
+            availableTime.setStartTime(LocalTime.of(8, 0).plusMinutes(30L * (i % 24)));
+            availableTime.setEndTime(availableTime.getStartTime().plusMinutes(30));
+            availableTime.setBooked(true);
+            availableTime.setServiceBarber(serviceBarber);
+
+            Appointment appointment = new Appointment();
+            appointment.setId((long) i);
+            appointment.setDateTime(LocalDateTime.of(availableTime.getDate(), availableTime.getStartTime()));
+            appointment.setClient(client);
+            appointment.setServiceBarber(serviceBarber);
+            appointment.setAvailableTime(availableTime);
+            graph.add(appointment);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(graph);
+    }
+}
@@ -0,0 +1,68 @@
+package me.dio.barbearia.benchmark;
+
+import me.dio.barbearia.service.AvailableTimeService;
+import me.dio.barbearia.support.SlotDatasetGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede {@link AvailableTimeService#findAvailableTimesByDate} com diferentes quantidades de
+ * horários por dia (96 por cópia da agenda), com e sem o cache por data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvailabilityQueryBenchmark {
+
+    private static final int DAYS = 90;
+
+    @Param({"1", "4", "16"})
+    public int scheduleCopies;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private AvailableTimeService availableTimeService;
+    private LocalDate firstDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("availability_benchmark_" + scheduleCopies + "_" + cacheEnabled,
+                "barbearia.availability-cache.enabled=" + cacheEnabled);
+        availableTimeService = context.getBean(AvailableTimeService.class);
+
+        SlotDatasetGenerator generator = new SlotDatasetGenerator(context.getBean(JdbcTemplate.class), 3L);
+        List<Long> serviceIds = generator.ensureServices();
+        firstDay = LocalDate.now().plusDays(1);
+        for (int copy = 0; copy < scheduleCopies; copy++) {
+            generator.generateSlots(firstDay, DAYS, LocalTime.of(6, 0), LocalTime.of(22, 0), 30, 0.0, serviceIds, List.of());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findAvailableTimesByDate() {
+        return availableTimeService.findAvailableTimesByDate(firstDay.plusDays(ThreadLocalRandom.current().nextInt(DAYS)));
+    }
+}
@@ -0,0 +1,38 @@
+package me.dio.barbearia.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.dio.barbearia.Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sobe o contexto Spring sem servidor web, com um banco H2 em memória exclusivo para o benchmark.
+ * <p>
+ * O jar do JMH guarda apenas um dos arquivos {@code AutoConfiguration.imports} das dependências, e
+ * as configurações automáticas do Actuator ficam de fora; o {@link MeterRegistry} usado pelos beans
+ * de métricas é registrado aqui.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            arguments.add("--" + property);
+        }
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory().registerSingleton("meterRegistry", new SimpleMeterRegistry()))
+                .run(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,59 @@
+package me.dio.barbearia.benchmark;
+
+import me.dio.barbearia.service.ClientService;
+import me.dio.barbearia.service.CpfIndex;
+import me.dio.barbearia.support.SlotDatasetGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a busca por CPF de {@link ClientService#findByCpf}, que resolve o ID pelo índice em memória e
+ * lê o cliente pela chave primária.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClientCpfLookupBenchmark {
+
+    private static final int CLIENTS = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private ClientService clientService;
+    private List<String> cpfs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("cpf_benchmark");
+        clientService = context.getBean(ClientService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        new SlotDatasetGenerator(jdbcTemplate, 5L).generateClients(CLIENTS);
+        cpfs = jdbcTemplate.queryForList("select cpf from client", String.class);
+        // Os clientes foram inseridos por JDBC, depois da carga feita na subida da aplicação
+        context.getBean(CpfIndex.class).warmUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void findByCpf(Blackhole blackhole) {
+        blackhole.consume(clientService.findByCpf(cpfs.get(ThreadLocalRandom.current().nextInt(cpfs.size()))));
+    }
+}
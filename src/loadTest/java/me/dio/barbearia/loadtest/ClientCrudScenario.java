@@ -0,0 +1,96 @@
+package me.dio.barbearia.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.random.RandomGenerator;
+
+/**
+ * CRUD de clientes. Os clientes criados durante a execução ficam em uma fila e são os únicos
+ * alterados ou excluídos, para não interferir nos agendamentos dos clientes da massa inicial.
+ */
+public final class ClientCrudScenario {
+
+    private final LoadTestApplication app;
+    private final Dataset dataset;
+    private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+
+    ClientCrudScenario(LoadTestApplication app, Dataset dataset) {
+        this.app = app;
+        this.dataset = dataset;
+    }
+
+    public LoadAction read() {
+        return Scenarios.action("GET clients/{id}", (client, random) ->
+                Scenarios.send(client, HttpRequest.newBuilder(app.uri("/clients/" + dataset.randomClientId(random))).GET()));
+    }
+
+    public LoadAction create() {
+        return Scenarios.action("POST clients", (client, random) -> {
+            HttpResponse<Void> response = client.send(Scenarios.json(app, "/clients")
+                    .POST(HttpRequest.BodyPublishers.ofString(body(random))).build(), HttpResponse.BodyHandlers.discarding());
+            response.headers().firstValue("Location")
+                    .map(location -> Long.valueOf(location.substring(location.lastIndexOf('/') + 1)))
+                    .ifPresent(createdIds::addLast);
+            return Outcome.fromStatus(response.statusCode());
+        });
+    }
+
+    public LoadAction update() {
+        return Scenarios.action("PUT clients/{id}", (client, random) -> {
+            Long id = createdIds.peekLast();
+            if (id == null) {
+                return readFallback(client, random);
+            }
+            return Scenarios.send(client, Scenarios.json(app, "/clients/" + id).PUT(HttpRequest.BodyPublishers.ofString(body(random))));
+        });
+    }
+
+    public LoadAction delete() {
+        return Scenarios.action("DELETE clients/{id}", (client, random) -> {
+            Long id = createdIds.pollFirst();
+            if (id == null) {
+                return readFallback(client, random);
+            }
+            return Scenarios.send(client, HttpRequest.newBuilder(app.uri("/clients/" + id)).DELETE());
+        });
+    }
+
+    private Outcome readFallback(HttpClient client, RandomGenerator random) throws Exception {
+        return Scenarios.send(client, HttpRequest.newBuilder(app.uri("/clients/" + dataset.randomClientId(random))).GET());
+    }
+
+    private static String body(RandomGenerator random) {
+        return """
+                {"name":"Cliente carga %d","cpf":"%s","phone":"119%08d"}"""
+                .formatted(random.nextInt(1_000_000), randomCpf(random), random.nextInt(100_000_000));
+    }
+
+    /**
+     * Gera um CPF válido (com dígitos verificadores corretos), já que a entidade é validada com {@code @CPF}.
+     */
+    static String randomCpf(RandomGenerator random) {
+        int[] digits = new int[11];
+        for (int i = 0; i < 9; i++) {
+            digits[i] = random.nextInt(10);
+        }
+        digits[9] = checkDigit(digits, 9);
+        digits[10] = checkDigit(digits, 10);
+
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digit : digits) {
+            cpf.append(digit);
+        }
+        return cpf.toString();
+    }
+
+    private static int checkDigit(int[] digits, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += digits[i] * (length + 1 - i);
+        }
+        int remainder = sum % 11;
+        return remainder < 2 ? 0 : 11 - remainder;
+    }
+}
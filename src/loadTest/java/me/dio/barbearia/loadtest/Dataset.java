@@ -0,0 +1,24 @@
+package me.dio.barbearia.loadtest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+public record Dataset(LocalDate firstDay, int days, List<Long> clientIds, List<Slot> slots) {
+
+    public LocalDate randomDate(RandomGenerator random) {
+        return firstDay.plusDays(random.nextInt(days));
+    }
+
+    public Long randomClientId(RandomGenerator random) {
+        return clientIds.get(random.nextInt(clientIds.size()));
+    }
+
+    public Slot randomSlot(RandomGenerator random) {
+        return slots.get(random.nextInt(slots.size()));
+    }
+
+    public record Slot(Long id, LocalDate date, LocalTime startTime, Long serviceId) {
+    }
+}
@@ -0,0 +1,62 @@
+package me.dio.barbearia.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Guarda todas as latências de uma operação para calcular percentis exatos ao final da execução.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1 << 14];
+    private int size;
+    private final Map<Outcome, Long> outcomes = new EnumMap<>(Outcome.class);
+
+    public synchronized void record(long nanos, Outcome outcome) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        outcomes.merge(outcome, 1L, Long::sum);
+    }
+
+    public synchronized void merge(LatencyRecorder other) {
+        synchronized (other) {
+            for (int i = 0; i < other.size; i++) {
+                if (size == samples.length) {
+                    samples = Arrays.copyOf(samples, size * 2);
+                }
+                samples[size++] = other.samples[i];
+            }
+            other.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Long::sum));
+        }
+    }
+
+    public synchronized Summary summarize(Duration elapsed) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return new Summary(size, size / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                outcomes.getOrDefault(Outcome.OK, 0L), outcomes.getOrDefault(Outcome.CONFLICT, 0L),
+                outcomes.getOrDefault(Outcome.REJECTED, 0L), outcomes.getOrDefault(Outcome.ERROR, 0L));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    public record Summary(long count, double throughput, double p50Millis, double p99Millis, double p999Millis,
+                          long ok, long conflicts, long rejected, long errors) {
+
+        public double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+    }
+}
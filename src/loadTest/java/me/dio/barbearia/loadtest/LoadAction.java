@@ -0,0 +1,11 @@
+package me.dio.barbearia.loadtest;
+
+import java.net.http.HttpClient;
+import java.util.random.RandomGenerator;
+
+public interface LoadAction {
+
+    String name();
+
+    Outcome execute(HttpClient client, RandomGenerator random) throws Exception;
+}
@@ -0,0 +1,85 @@
+package me.dio.barbearia.loadtest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispara {@code users} usuários simultâneos (uma thread virtual cada), que escolhem ações segundo
+ * os pesos informados, sem pausa entre as requisições. As medições do aquecimento são descartadas.
+ */
+public class LoadDriver {
+
+    private final int users;
+    private final Duration warmup;
+    private final Duration duration;
+
+    public LoadDriver(int users, Duration warmup, Duration duration) {
+        this.users = users;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public LoadReport run(List<WeightedAction> actions) throws InterruptedException {
+        int totalWeight = actions.stream().mapToInt(WeightedAction::weight).sum();
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        actions.forEach(weighted -> recorders.put(weighted.action().name(), new LatencyRecorder()));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < stopAt) {
+                        LoadAction action = pick(actions, totalWeight, random.nextInt(totalWeight));
+                        long start = System.nanoTime();
+                        Outcome outcome;
+                        try {
+                            outcome = action.execute(client, random);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            outcome = Outcome.ERROR;
+                        }
+                        long end = System.nanoTime();
+                        if (start >= measureFrom && end <= stopAt) {
+                            recorders.get(action.name()).record(end - start, outcome);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(warmup.plus(duration).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+
+        return new LoadReport(users, duration, recorders);
+    }
+
+    private static LoadAction pick(List<WeightedAction> actions, int totalWeight, int roll) {
+        int accumulated = 0;
+        for (WeightedAction weighted : actions) {
+            accumulated += weighted.weight();
+            if (roll < accumulated) {
+                return weighted.action();
+            }
+        }
+        return actions.get(actions.size() - 1).action();
+    }
+}
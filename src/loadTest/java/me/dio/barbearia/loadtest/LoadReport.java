@@ -0,0 +1,65 @@
+package me.dio.barbearia.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public record LoadReport(int users, Duration duration, Map<String, LatencyRecorder> recorders) {
+
+    public LatencyRecorder.Summary summary(String action) {
+        return recorders.get(action).summarize(duration);
+    }
+
+    public LatencyRecorder.Summary total() {
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.values().forEach(total::merge);
+        return total.summarize(duration);
+    }
+
+    public void print(String title) {
+        System.out.printf("%n== %s (%d usuários, %ds) ==%n", title, users, duration.toSeconds());
+        System.out.printf("%-22s %9s %10s %9s %9s %9s %8s %9s %9s %8s %7s%n",
+                "operação", "reqs", "req/s", "p50 ms", "p99 ms", "p999 ms", "ok", "conflito", "rejeitado", "erro", "erro %");
+        recorders.keySet().forEach(action -> printRow(action, summary(action)));
+        printRow("TOTAL", total());
+    }
+
+    /**
+     * Grava o relatório em CSV no diretório informado por {@code -Dloadtest.reportDir}, para comparar
+     * execuções. Não faz nada quando a propriedade não está definida.
+     */
+    public void writeCsv(String name) {
+        String reportDir = System.getProperty("loadtest.reportDir");
+        if (reportDir == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("operation,requests,throughput,p50_ms,p99_ms,p999_ms,ok,conflicts,rejected,errors,error_rate");
+        recorders.keySet().forEach(action -> lines.add(csvRow(action, summary(action))));
+        lines.add(csvRow("TOTAL", total()));
+        try {
+            Path directory = Files.createDirectories(Path.of(reportDir));
+            Files.write(directory.resolve(name + ".csv"), lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void printRow(String name, LatencyRecorder.Summary summary) {
+        System.out.printf("%-22s %9d %10.1f %9.2f %9.2f %9.2f %8d %9d %9d %8d %7.2f%n",
+                name, summary.count(), summary.throughput(), summary.p50Millis(), summary.p99Millis(), summary.p999Millis(),
+                summary.ok(), summary.conflicts(), summary.rejected(), summary.errors(), summary.errorRate() * 100);
+    }
+
+    private static String csvRow(String name, LatencyRecorder.Summary summary) {
+        return String.format(Locale.ROOT, "%s,%d,%.1f,%.3f,%.3f,%.3f,%d,%d,%d,%d,%.5f",
+                name, summary.count(), summary.throughput(), summary.p50Millis(), summary.p99Millis(), summary.p999Millis(),
+                summary.ok(), summary.conflicts(), summary.rejected(), summary.errors(), summary.errorRate());
+    }
+}
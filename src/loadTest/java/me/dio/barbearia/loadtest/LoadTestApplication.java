@@ -0,0 +1,71 @@
+package me.dio.barbearia.loadtest;
+
+import me.dio.barbearia.Application;
+import me.dio.barbearia.support.SlotDatasetGenerator;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sobe a aplicação completa em uma porta aleatória, com um banco H2 em memória exclusivo.
+ */
+public final class LoadTestApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final int port;
+
+    private LoadTestApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    public static LoadTestApplication start(String name, String[] profiles, String... properties) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + name,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            arguments.add("--" + property);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .profiles(profiles)
+                .run(arguments.toArray(String[]::new));
+        return new LoadTestApplication(context);
+    }
+
+    public Dataset seed(int days, int clients) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        SlotDatasetGenerator generator = new SlotDatasetGenerator(jdbcTemplate, 2024L);
+        List<Long> serviceIds = generator.ensureServices();
+        List<Long> clientIds = generator.generateClients(clients);
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        generator.generateSlots(firstDay, days, LocalTime.of(8, 0), LocalTime.of(20, 0), 30, 0.0, serviceIds, List.of());
+
+        List<Dataset.Slot> slots = jdbcTemplate.query("select id, date, start_time, service_id from available_time where is_booked = false",
+                (resultSet, row) -> new Dataset.Slot(resultSet.getLong(1), resultSet.getDate(2).toLocalDate(),
+                        resultSet.getTime(3).toLocalTime(), resultSet.getLong(4)));
+        return new Dataset(firstDay, days, clientIds, slots);
+    }
+
+    public URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
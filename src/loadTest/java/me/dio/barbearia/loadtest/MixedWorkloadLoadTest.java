@@ -0,0 +1,47 @@
+package me.dio.barbearia.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga mista para planejamento de capacidade: 80% leituras do calendário, 15% agendamentos e 5%
+ * CRUD de clientes. Os conflitos de agendamento (horário já reservado) são esperados e contados à
+ * parte; apenas respostas 5xx inesperadas e falhas de conexão contam como erro.
+ * <p>
+ * Execução: {@code ./gradlew loadTest --tests '*MixedWorkload*' -Dloadtest.users=200 -Dloadtest.seconds=60 -Dloadtest.profiles=virtual}
+ */
+class MixedWorkloadLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 200);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 15));
+    private static final String[] PROFILES = System.getProperty("loadtest.profiles", "").isBlank()
+            ? new String[0] : System.getProperty("loadtest.profiles").split(",");
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.001"));
+
+    @Test
+    void calendarBookingAndClientMix() throws Exception {
+        try (LoadTestApplication app = LoadTestApplication.start("mixed_workload", PROFILES)) {
+            Dataset dataset = app.seed(60, 2_000);
+            ClientCrudScenario clients = Scenarios.clientCrud(app, dataset);
+
+            // Pesos em décimos de ponto percentual: 80% + 15% + 5% (2% leitura, 1,5% criação, 1% alteração, 0,5% exclusão).
+            LoadReport report = new LoadDriver(USERS, WARMUP, DURATION).run(List.of(
+                    new WeightedAction(800, Scenarios.calendarRead(app, dataset)),
+                    new WeightedAction(150, Scenarios.booking(app, dataset)),
+                    new WeightedAction(20, clients.read()),
+                    new WeightedAction(15, clients.create()),
+                    new WeightedAction(10, clients.update()),
+                    new WeightedAction(5, clients.delete())));
+            report.print("Carga mista");
+            report.writeCsv("mixed-workload");
+
+            assertThat(report.total().ok()).isPositive();
+            assertThat(report.total().errorRate()).isLessThanOrEqualTo(MAX_ERROR_RATE);
+        }
+    }
+}
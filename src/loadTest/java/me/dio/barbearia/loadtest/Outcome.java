@@ -0,0 +1,21 @@
+package me.dio.barbearia.loadtest;
+
+public enum Outcome {
+    OK,
+    CONFLICT,
+    REJECTED,
+    ERROR;
+
+    public static Outcome fromStatus(int status) {
+        if (status >= 200 && status < 300) {
+            return OK;
+        }
+        if (status == 400 || status == 409) {
+            return CONFLICT;
+        }
+        if (status == 429 || status == 503) {
+            return REJECTED;
+        }
+        return ERROR;
+    }
+}
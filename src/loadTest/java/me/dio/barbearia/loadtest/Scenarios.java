@@ -0,0 +1,66 @@
+package me.dio.barbearia.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.random.RandomGenerator;
+
+/**
+ * Ações HTTP usadas pelos testes de carga, equivalentes ao que o aplicativo faz.
+ */
+public final class Scenarios {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private Scenarios() {
+    }
+
+    public static LoadAction calendarRead(LoadTestApplication app, Dataset dataset) {
+        return action("GET available-times", (client, random) ->
+                send(client, HttpRequest.newBuilder(app.uri("/appointments/available-times?date=" + dataset.randomDate(random))).GET()));
+    }
+
+    public static LoadAction booking(LoadTestApplication app, Dataset dataset) {
+        return action("POST appointments", (client, random) -> {
+            Dataset.Slot slot = dataset.randomSlot(random);
+            String body = """
+                    {"dateTime":"%s","client":{"id":%d},"serviceBarber":{"id":%d},"availableTime":{"id":%d}}"""
+                    .formatted(LocalDateTime.of(slot.date(), slot.startTime()), dataset.randomClientId(random), slot.serviceId(), slot.id());
+            return send(client, json(app, "/appointments").POST(HttpRequest.BodyPublishers.ofString(body)));
+        });
+    }
+
+    public static ClientCrudScenario clientCrud(LoadTestApplication app, Dataset dataset) {
+        return new ClientCrudScenario(app, dataset);
+    }
+
+    static HttpRequest.Builder json(LoadTestApplication app, String path) {
+        return HttpRequest.newBuilder(app.uri(path)).header("Content-Type", "application/json");
+    }
+
+    static Outcome send(HttpClient client, HttpRequest.Builder request) throws Exception {
+        HttpResponse<Void> response = client.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.discarding());
+        return Outcome.fromStatus(response.statusCode());
+    }
+
+    static LoadAction action(String name, Execution execution) {
+        return new LoadAction() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Outcome execute(HttpClient client, RandomGenerator random) throws Exception {
+                return execution.execute(client, random);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Execution {
+        Outcome execute(HttpClient client, RandomGenerator random) throws Exception;
+    }
+}
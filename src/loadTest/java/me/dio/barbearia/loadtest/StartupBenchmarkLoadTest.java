@@ -0,0 +1,169 @@
+package me.dio.barbearia.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Mede o tempo de subida da aplicação em processos novos, do início do processo até a primeira
+ * resposta de {@code /actuator/health}, com e sem o perfil prod, o AOT e o arquivo CDS. Cada
+ * configuração sobe {@code startup.runs} vezes; o relatório mostra a mediana e o mínimo, além do
+ * tempo informado pelo Spring ("Started ... in X seconds").
+ * <p>
+ * Execução: {@code ./gradlew startupBenchmark -Dstartup.runs=5}
+ */
+class StartupBenchmarkLoadTest {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 3);
+    private static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("startup.timeout", 180));
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @Test
+    void compareStartupModes() throws Exception {
+        String appDir = System.getProperty("startup.appDir");
+        assumeTrue(appDir != null, "Execute com ./gradlew startupBenchmark, que gera o jar extraído e o arquivo CDS");
+
+        List<Mode> modes = List.of(
+                new Mode("padrão", List.of()),
+                new Mode("prod", List.of("-Dspring.profiles.active=prod")),
+                new Mode("prod + AOT", List.of("-Dspring.profiles.active=prod", "-Dspring.aot.enabled=true")),
+                new Mode("prod + AOT + CDS", List.of("-XX:SharedArchiveFile=application.jsa",
+                        "-Dspring.profiles.active=prod", "-Dspring.aot.enabled=true")));
+
+        List<Result> results = new ArrayList<>();
+        for (Mode mode : modes) {
+            List<Run> runs = new ArrayList<>(RUNS);
+            for (int i = 0; i < RUNS; i++) {
+                runs.add(start(Path.of(appDir), mode));
+            }
+            results.add(Result.of(mode.name(), runs));
+        }
+
+        print(results);
+        writeCsv(results);
+        assertThat(results).allSatisfy(result -> assertThat(result.medianMillis()).isPositive());
+    }
+
+    private Run start(Path appDir, Mode mode) throws Exception {
+        int port = freePort();
+        Path log = Files.createTempFile("startup-", ".log");
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("startup.java", "java"));
+        command.addAll(mode.jvmArguments());
+        command.addAll(List.of("-jar", System.getProperty("startup.jar"),
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup",
+                "--spring.jpa.show-sql=false"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(appDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long readyNanos = awaitHealthy(process, port, start);
+            return new Run(TimeUnit.NANOSECONDS.toMillis(readyNanos - start), reportedMillis(log));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+            Files.deleteIfExists(log);
+        }
+    }
+
+    private long awaitHealthy(Process process, int port, long start) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("A aplicação terminou durante a subida (código " + process.exitValue() + ")");
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return System.nanoTime();
+                }
+            } catch (IOException e) {
+                // Porta ainda fechada
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("A aplicação não respondeu em " + TIMEOUT.toSeconds() + "s");
+    }
+
+    private static long reportedMillis(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Math.round(Double.parseDouble(matcher.group(1)) * 1000) : -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void print(List<Result> results) {
+        System.out.printf("%n== Tempo de subida (%d execuções por configuração) ==%n", RUNS);
+        System.out.printf("%-20s %14s %14s %18s%n", "configuração", "mediana ms", "mínimo ms", "Spring (med.) ms");
+        for (Result result : results) {
+            System.out.printf("%-20s %14d %14d %18d%n", result.name(), result.medianMillis(), result.minMillis(), result.reportedMedianMillis());
+        }
+    }
+
+    /**
+     * Grava o relatório em CSV no diretório informado por {@code -Dstartup.reportDir}.
+     */
+    private static void writeCsv(List<Result> results) {
+        String reportDir = System.getProperty("startup.reportDir");
+        if (reportDir == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("mode,runs,median_ms,min_ms,spring_median_ms");
+        results.forEach(result -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%d,%d",
+                result.name(), RUNS, result.medianMillis(), result.minMillis(), result.reportedMedianMillis())));
+        try {
+            Path directory = Files.createDirectories(Path.of(reportDir));
+            Files.write(directory.resolve("startup.csv"), lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Mode(String name, List<String> jvmArguments) {
+    }
+
+    private record Run(long readyMillis, long reportedMillis) {
+    }
+
+    private record Result(String name, long medianMillis, long minMillis, long reportedMedianMillis) {
+
+        static Result of(String name, List<Run> runs) {
+            long[] ready = runs.stream().mapToLong(Run::readyMillis).sorted().toArray();
+            long[] reported = runs.stream().mapToLong(Run::reportedMillis).sorted().toArray();
+            return new Result(name, ready[ready.length / 2], ready[0], reported[reported.length / 2]);
+        }
+    }
+}
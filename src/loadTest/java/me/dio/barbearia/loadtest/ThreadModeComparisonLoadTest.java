@@ -0,0 +1,45 @@
+package me.dio.barbearia.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara o Tomcat com o pool de threads de plataforma padrão e com o perfil {@code virtual}
+ * (threads virtuais + limite de conexões simultâneas) nos endpoints de calendário e agendamento.
+ * <p>
+ * Execução: {@code ./gradlew loadTest --tests '*ThreadModeComparison*' -Dloadtest.users=800 -Dloadtest.seconds=30}
+ */
+class ThreadModeComparisonLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 400);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 15));
+
+    @Test
+    void platformThreads() throws Exception {
+        run("platform", new String[0]);
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        run("virtual", new String[]{"virtual"});
+    }
+
+    private static void run(String mode, String[] profiles) throws Exception {
+        try (LoadTestApplication app = LoadTestApplication.start("threads_" + mode, profiles)) {
+            Dataset dataset = app.seed(60, 2_000);
+            LoadReport report = new LoadDriver(USERS, WARMUP, DURATION).run(List.of(
+                    new WeightedAction(80, Scenarios.calendarRead(app, dataset)),
+                    new WeightedAction(20, Scenarios.booking(app, dataset))));
+            report.print("Threads " + mode);
+            report.writeCsv("threads-" + mode);
+
+            assertThat(report.total().ok()).isPositive();
+            assertThat(report.total().errors()).isZero();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package me.dio.barbearia.loadtest;
+
+public record WeightedAction(int weight, LoadAction action) {
+}
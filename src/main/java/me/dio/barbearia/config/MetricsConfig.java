@@ -0,0 +1,39 @@
+package me.dio.barbearia.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.dio.barbearia.service.AvailabilityCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publica as estatísticas do cache de horários com os mesmos nomes usados pelo Micrometer para
+ * outros caches ({@code cache.gets}, {@code cache.evictions}...), com a tag {@code cache=availability}.
+ * As latências dos repositórios ({@code spring.data.repository.invocations}) e do Hibernate são
+ * registradas automaticamente pelo Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder availabilityCacheMetrics(AvailabilityCache availabilityCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", availabilityCache, cache -> cache.stats().hits())
+                    .tag("cache", "availability").tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", availabilityCache, cache -> cache.stats().misses())
+                    .tag("cache", "availability").tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", availabilityCache, cache -> cache.stats().evictions())
+                    .tag("cache", "availability")
+                    .register(registry);
+            FunctionCounter.builder("cache.invalidations", availabilityCache, cache -> cache.stats().invalidations())
+                    .tag("cache", "availability")
+                    .register(registry);
+            Gauge.builder("cache.size", availabilityCache, cache -> cache.stats().size())
+                    .tag("cache", "availability")
+                    .register(registry);
+        };
+    }
+}
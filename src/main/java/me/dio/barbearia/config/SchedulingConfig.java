@@ -0,0 +1,29 @@
+package me.dio.barbearia.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Arrays;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Com {@code spring.main.lazy-initialization=true} (perfil prod), um bean só é criado no primeiro
+     * uso, e os métodos {@code @Scheduled} de um bean que ninguém usou nunca seriam agendados. Beans
+     * com tarefas agendadas continuam sendo criados na subida.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter scheduledTasksExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType)).anyMatch(method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) || AnnotatedElementUtils.hasAnnotation(method, Schedules.class));
+    }
+}
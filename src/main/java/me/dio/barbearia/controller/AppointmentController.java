@@ -7,15 +7,39 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import me.dio.barbearia.domain.model.Appointment;
 import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.dto.AppointmentSummary;
+import me.dio.barbearia.dto.AvailabilityRangeResponse;
+import me.dio.barbearia.dto.AvailableSlotView;
+import me.dio.barbearia.dto.BatchBookingRequest;
+import me.dio.barbearia.dto.BatchBookingResult;
+import me.dio.barbearia.dto.BookingTicketResponse;
+import me.dio.barbearia.dto.FreeWindow;
+import me.dio.barbearia.dto.KeysetPage;
+import me.dio.barbearia.dto.ScheduleResult;
+import me.dio.barbearia.dto.ScheduleTemplate;
 import me.dio.barbearia.service.AppointmentService;
+import me.dio.barbearia.service.AsyncBookingService;
+import me.dio.barbearia.service.AvailableTimeScheduleService;
 import me.dio.barbearia.service.AvailableTimeService;
+import me.dio.barbearia.service.SlotEventBroadcaster;
+import me.dio.barbearia.util.BusinessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/appointments")
@@ -24,10 +48,20 @@ public class AppointmentController {
 
     private final AppointmentService appointmentService;
     private final AvailableTimeService availableTimeService;
+    private final AvailableTimeScheduleService availableTimeScheduleService;
+    private final AsyncBookingService asyncBookingService;
+    private final SlotEventBroadcaster slotEventBroadcaster;
+    private final NdjsonStreamWriter ndjsonStreamWriter;
 
-    public AppointmentController(AppointmentService appointmentService, AvailableTimeService availableTimeService) {
+    public AppointmentController(AppointmentService appointmentService, AvailableTimeService availableTimeService,
+                                 AvailableTimeScheduleService availableTimeScheduleService, AsyncBookingService asyncBookingService,
+                                 SlotEventBroadcaster slotEventBroadcaster, NdjsonStreamWriter ndjsonStreamWriter) {
         this.appointmentService = appointmentService;
         this.availableTimeService = availableTimeService;
+        this.availableTimeScheduleService = availableTimeScheduleService;
+        this.asyncBookingService = asyncBookingService;
+        this.slotEventBroadcaster = slotEventBroadcaster;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     @GetMapping
@@ -37,6 +71,36 @@ public class AppointmentController {
         return ResponseEntity.ok(appointments);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Obtém agendamentos paginados por cursor (ID do último agendamento da página anterior)")
+    public ResponseEntity<KeysetPage<Appointment>> findPage(@RequestParam(required = false) Long after,
+                                                            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(appointmentService.findPage(after, size));
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonStreamWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Transmite todos os agendamentos em NDJSON, um por linha")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return ndjsonStreamWriter.stream(appointmentService::streamAll);
+    }
+
+    @GetMapping("/summaries")
+    @Operation(summary = "Obtém um resumo dos agendamentos (cliente e tipo de serviço), paginado por cursor")
+    public ResponseEntity<KeysetPage<AppointmentSummary>> findSummaries(@RequestParam(required = false) Long after,
+                                                                        @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(appointmentService.findSummaries(after, size));
+    }
+
+    @GetMapping("/{id}/summary")
+    @Operation(summary = "Obtém o resumo de um agendamento por ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Agendamento encontrado"),
+            @ApiResponse(responseCode = "404", description = "Agendamento não encontrado")
+    })
+    public ResponseEntity<AppointmentSummary> findSummaryById(@PathVariable Long id) {
+        return ResponseEntity.ok(appointmentService.findSummaryById(id));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtém um agendamento por ID")
     @ApiResponses(value = {
@@ -58,6 +122,77 @@ public class AppointmentController {
         return ResponseEntity.ok(availableTimes);
     }
 
+    @GetMapping("/available-times/page")
+    @Operation(summary = "Obtém todos os horários (livres ou agendados) paginados por cursor")
+    public ResponseEntity<KeysetPage<AvailableTime>> findAvailableTimesPage(@RequestParam(required = false) Long after,
+                                                                            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(availableTimeService.findPage(after, size));
+    }
+
+    @GetMapping(value = "/available-times/stream", produces = NdjsonStreamWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Transmite todos os horários (livres ou agendados) em NDJSON, um por linha")
+    public ResponseEntity<StreamingResponseBody> streamAvailableTimes() {
+        return ndjsonStreamWriter.stream(availableTimeService::streamAll);
+    }
+
+    @GetMapping("/available-times/range")
+    @Operation(summary = "Obtém horários disponíveis em um intervalo de datas, agrupados por serviço")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Horários disponíveis encontrados"),
+            @ApiResponse(responseCode = "400", description = "Intervalo de datas inválido")
+    })
+    public ResponseEntity<AvailabilityRangeResponse> findAvailableTimesBetween(@RequestParam LocalDate from,
+                                                                               @RequestParam LocalDate to,
+                                                                               @RequestParam(required = false) ServiceType type) {
+        AvailabilityRangeResponse availableTimes = availableTimeService.findAvailableTimesBetween(from, to, type);
+        return ResponseEntity.ok(availableTimes);
+    }
+
+    @GetMapping("/available-times/next")
+    @Operation(summary = "Obtém os próximos horários livres de um serviço a partir de uma data e hora (padrão: agora)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Horários livres encontrados, em ordem de data e hora"),
+            @ApiResponse(responseCode = "400", description = "Quantidade inválida")
+    })
+    public ResponseEntity<List<AvailableSlotView>> findNextAvailableTimes(@RequestParam ServiceType type,
+                                                                          @RequestParam(required = false) LocalDateTime from,
+                                                                          @RequestParam(defaultValue = "5") int count) {
+        return ResponseEntity.ok(availableTimeService.findNextAvailable(type, from, count));
+    }
+
+    @GetMapping("/available-times/free-windows")
+    @Operation(summary = "Obtém os trechos de uma data em que cabe um novo horário do serviço com a duração informada")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Janelas livres encontradas"),
+            @ApiResponse(responseCode = "400", description = "Duração ou faixa de horário inválida")
+    })
+    public ResponseEntity<List<FreeWindow>> findFreeWindows(@RequestParam LocalDate date,
+                                                            @RequestParam ServiceType type,
+                                                            @RequestParam(defaultValue = "30") int minutes,
+                                                            @RequestParam(defaultValue = "08:00") LocalTime from,
+                                                            @RequestParam(defaultValue = "20:00") LocalTime to) {
+        return ResponseEntity.ok(availableTimeService.findFreeWindows(date, type, minutes, from, to));
+    }
+
+    @GetMapping("/available-times/overlaps")
+    @Operation(summary = "Obtém os horários de uma data que se sobrepõem além da capacidade do serviço")
+    public ResponseEntity<List<AvailableSlotView>> findOverlaps(@RequestParam LocalDate date) {
+        return ResponseEntity.ok(availableTimeService.findOverlaps(date));
+    }
+
+    @GetMapping(value = "/available-times/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Recebe por Server-Sent Events as alterações dos horários de uma data (created, updated, deleted, booked, freed)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conexão aberta; os eventos são enviados após o commit"),
+            @ApiResponse(responseCode = "503", description = "Limite de conexões atingido")
+    })
+    public ResponseEntity<SseEmitter> availableTimeEvents(@RequestParam LocalDate date,
+                                                          @RequestParam(required = false) ServiceType type) {
+        return slotEventBroadcaster.subscribe(date, type)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build());
+    }
+
     @PostMapping("/available-times")
     @Operation(summary = "Cria um novo horário disponível para agendamento")
     @ApiResponses(value = {
@@ -73,6 +208,18 @@ public class AppointmentController {
         return ResponseEntity.created(location).body(createdAvailableTime);
     }
 
+    @PostMapping("/available-times/schedule")
+    @Operation(summary = "Gera horários disponíveis em lote a partir de um modelo de agenda")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Horários gerados; os já existentes são ignorados"),
+            @ApiResponse(responseCode = "400", description = "Modelo de agenda inválido"),
+            @ApiResponse(responseCode = "404", description = "Serviço não encontrado")
+    })
+    public ResponseEntity<ScheduleResult> createSchedule(@Valid @RequestBody ScheduleTemplate template) {
+        ScheduleResult result = availableTimeScheduleService.create(template);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
     @PutMapping("/available-times/{id}")
     @Operation(summary = "Atualiza um horário disponível existente")
     @ApiResponses(value = {
@@ -113,6 +260,51 @@ public class AppointmentController {
         return ResponseEntity.created(location).body(createdAppointment);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Cria vários agendamentos do mesmo cliente e serviço em uma única transação (ALL_OR_NOTHING ou BEST_EFFORT)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Agendamentos criados e, no modo BEST_EFFORT, horários recusados"),
+            @ApiResponse(responseCode = "200", description = "No modo BEST_EFFORT, nenhum horário pôde ser agendado"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos ou, no modo ALL_OR_NOTHING, algum horário indisponível"),
+            @ApiResponse(responseCode = "404", description = "Cliente, serviço ou, no modo ALL_OR_NOTHING, algum horário não encontrado")
+    })
+    public ResponseEntity<BatchBookingResult> createBatch(@Valid @RequestBody BatchBookingRequest request) {
+        BatchBookingResult result = appointmentService.createBatch(request);
+        return ResponseEntity.status(result.created().isEmpty() ? HttpStatus.OK : HttpStatus.CREATED).body(result);
+    }
+
+    @PostMapping("/async")
+    @Operation(summary = "Enfileira um pedido de agendamento e devolve um ticket para acompanhar o resultado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Pedido enfileirado"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+            @ApiResponse(responseCode = "503", description = "Fila de agendamentos cheia")
+    })
+    public ResponseEntity<BookingTicketResponse> createAsync(@Valid @RequestBody Appointment appointmentToCreate) {
+        return asyncBookingService.submit(appointmentToCreate)
+                .map(ticket -> ResponseEntity.accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                .path("/appointments/tickets/{id}")
+                                .buildAndExpand(ticket.id())
+                                .toUri())
+                        .body(ticket))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build());
+    }
+
+    @GetMapping("/tickets/{id}")
+    @Operation(summary = "Obtém a situação de um pedido de agendamento assíncrono, aguardando até waitSeconds pela conclusão")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação do pedido (PENDING, CONFIRMED ou REJECTED)"),
+            @ApiResponse(responseCode = "404", description = "Pedido não encontrado ou expirado")
+    })
+    public CompletableFuture<BookingTicketResponse> findTicket(@PathVariable String id,
+                                                               @RequestParam(defaultValue = "0") int waitSeconds) {
+        if (waitSeconds < 0 || waitSeconds > 30) {
+            throw new BusinessException("O parâmetro waitSeconds deve estar entre 0 e 30.");
+        }
+        return asyncBookingService.awaitTicket(id, Duration.ofSeconds(waitSeconds));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualiza um agendamento existente")
     @ApiResponses(value = {
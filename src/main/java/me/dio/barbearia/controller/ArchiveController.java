@@ -0,0 +1,62 @@
+package me.dio.barbearia.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import me.dio.barbearia.domain.model.ArchivedAppointment;
+import me.dio.barbearia.domain.model.ArchivedAvailableTime;
+import me.dio.barbearia.dto.KeysetPage;
+import me.dio.barbearia.service.ArchiveService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/archive")
+@Tag(name = "Arquivo", description = "Consulta de agendamentos e horários já arquivados")
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+
+    public ArchiveController(ArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping("/appointments")
+    @Operation(summary = "Lista os agendamentos arquivados, opcionalmente de um cliente e/ou de um intervalo de datas")
+    public ResponseEntity<KeysetPage<ArchivedAppointment>> findAppointments(@RequestParam(required = false) Long clientId,
+                                                                            @RequestParam(required = false) LocalDate from,
+                                                                            @RequestParam(required = false) LocalDate to,
+                                                                            @RequestParam(required = false) Long after,
+                                                                            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(archiveService.findAppointments(clientId, from, to, after, size));
+    }
+
+    @GetMapping("/available-times")
+    @Operation(summary = "Lista os horários agendados arquivados de um intervalo de datas")
+    public ResponseEntity<KeysetPage<ArchivedAvailableTime>> findAvailableTimes(@RequestParam LocalDate from,
+                                                                                @RequestParam LocalDate to,
+                                                                                @RequestParam(required = false) Long after,
+                                                                                @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(archiveService.findAvailableTimes(from, to, after, size));
+    }
+
+    @PostMapping("/run")
+    @Operation(summary = "Executa uma rodada de arquivamento sem esperar o agendamento diário")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rodada executada"),
+            @ApiResponse(responseCode = "409", description = "Outra rodada de arquivamento está em andamento")
+    })
+    public ResponseEntity<ArchiveService.ArchiveResult> run() {
+        return archiveService.archive()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+}
@@ -0,0 +1,31 @@
+package me.dio.barbearia.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import me.dio.barbearia.dto.KeysetPage;
+import me.dio.barbearia.dto.OutboxMessage;
+import me.dio.barbearia.service.OutboxService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/changes")
+@Tag(name = "Alterações", description = "Log de alterações de agendamentos, clientes e horários para integrações")
+public class ChangeLogController {
+
+    private final OutboxService outboxService;
+
+    public ChangeLogController(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Obtém as alterações posteriores ao cursor (número de sequência da última alteração já processada)")
+    public ResponseEntity<KeysetPage<OutboxMessage>> findChanges(@RequestParam(required = false) Long after,
+                                                                 @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(outboxService.findChanges(after, size));
+    }
+}
@@ -6,9 +6,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.dto.KeysetPage;
 import me.dio.barbearia.service.ClientService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -20,9 +22,11 @@ import java.util.List;
 public class ClientController {
 
     private final ClientService clientService;
+    private final NdjsonStreamWriter ndjsonStreamWriter;
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, NdjsonStreamWriter ndjsonStreamWriter) {
         this.clientService = clientService;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     @GetMapping
@@ -32,6 +36,19 @@ public class ClientController {
         return ResponseEntity.ok(clients);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Obtém clientes paginados por cursor (ID do último cliente da página anterior)")
+    public ResponseEntity<KeysetPage<Client>> findPage(@RequestParam(required = false) Long after,
+                                                       @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(clientService.findPage(after, size));
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonStreamWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Transmite todos os clientes em NDJSON, um por linha")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return ndjsonStreamWriter.stream(clientService::streamAll);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtém um cliente por ID")
     @ApiResponses(value = {
@@ -43,6 +60,17 @@ public class ClientController {
         return ResponseEntity.ok(client);
     }
 
+    @GetMapping("/cpf/{cpf}")
+    @Operation(summary = "Obtém um cliente por CPF, com ou sem pontuação")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cliente encontrado"),
+            @ApiResponse(responseCode = "404", description = "Cliente não encontrado")
+    })
+    public ResponseEntity<Client> findByCpf(@PathVariable String cpf) {
+        Client client = clientService.findByCpf(cpf);
+        return ResponseEntity.ok(client);
+    }
+
     @PostMapping
     @Operation(summary = "Cria um novo cliente")
     @ApiResponses(value = {
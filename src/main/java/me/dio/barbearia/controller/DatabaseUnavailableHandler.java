@@ -0,0 +1,33 @@
+package me.dio.barbearia.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Responde 503 com {@code Retry-After} quando a requisição não obtém conexão do pool dentro do
+ * {@code connection-timeout}, em vez de erro interno. As demais falhas de acesso ao banco seguem
+ * para o tratamento padrão.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "barbearia.db-unavailable-handler.enabled", havingValue = "true")
+public class DatabaseUnavailableHandler {
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<String> handleDatabaseBusy(NestedRuntimeException e) {
+        if (!(e.getMostSpecificCause() instanceof SQLTransientConnectionException)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Servidor ocupado, tente novamente em instantes.");
+    }
+}
@@ -0,0 +1,212 @@
+package me.dio.barbearia.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import me.dio.barbearia.service.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Trata o cabeçalho {@code Idempotency-Key} em {@code POST /appointments}: a primeira requisição
+ * com uma chave é executada e, se tiver sucesso, sua resposta é guardada; as repetições recebem a
+ * mesma resposta sem passar pelo controller nem pelo banco.
+ * <p>
+ * Uma repetição que chega enquanto a original ainda está em andamento recebe 409, e uma chave
+ * reutilizada com outro corpo recebe 422. Respostas de erro não são guardadas. Como o corpo é lido
+ * inteiro para calcular o hash, requisições com corpo maior que 64 KiB recebem 413.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_STORED_BODY = 64 * 1024;
+    private static final String BODY_TOO_LARGE = "O corpo de uma requisição com Idempotency-Key deve ter até " + MAX_STORED_BODY + " bytes.";
+
+    private final IdempotencyStore idempotencyStore;
+    private final boolean enabled;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, @Value("${barbearia.idempotency.enabled:true}") boolean enabled) {
+        this.idempotencyStore = idempotencyStore;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || !"/appointments".equals(request.getRequestURI().substring(request.getContextPath().length()))
+                || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).strip();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "O cabeçalho Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres.");
+            return;
+        }
+
+        if (request.getContentLengthLong() > MAX_STORED_BODY) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, BODY_TOO_LARGE);
+            return;
+        }
+        // Sem Content-Length (corpo em chunks) o limite é aplicado na leitura
+        byte[] body = request.getInputStream().readNBytes(MAX_STORED_BODY + 1);
+        if (body.length > MAX_STORED_BODY) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, BODY_TOO_LARGE);
+            return;
+        }
+        String requestHash = sha256(body);
+
+        IdempotencyStore.Decision decision = idempotencyStore.begin(key, requestHash);
+        switch (decision.outcome()) {
+            case REPLAY -> replay(response, decision.response());
+            case IN_PROGRESS -> reject(response, HttpStatus.CONFLICT,
+                    "Uma requisição com esta Idempotency-Key ainda está sendo processada.");
+            case MISMATCH -> reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Esta Idempotency-Key já foi usada com outro conteúdo.");
+            case PROCEED -> proceed(new CachedBodyRequest(request, body), response, filterChain, key, requestHash);
+        }
+    }
+
+    private void proceed(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String key, String requestHash) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            int status = responseWrapper.getStatus();
+            byte[] responseBody = responseWrapper.getContentAsByteArray();
+            if (status >= 200 && status < 300 && responseBody.length <= MAX_STORED_BODY) {
+                idempotencyStore.complete(key, new IdempotencyStore.StoredResponse(requestHash, status,
+                        responseWrapper.getContentType(), responseWrapper.getHeader(HttpHeaders.LOCATION), responseBody));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyStore.abandon(key);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyStore.StoredResponse storedResponse) throws IOException {
+        response.setStatus(storedResponse.status());
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        if (storedResponse.contentType() != null) {
+            response.setContentType(storedResponse.contentType());
+        }
+        if (storedResponse.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, storedResponse.location());
+        }
+        if (storedResponse.body() != null) {
+            response.setContentLength(storedResponse.body().length);
+            response.getOutputStream().write(storedResponse.body());
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Requisição cujo corpo já foi lido pelo filtro e é servido novamente a partir da memória.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // O corpo inteiro já está em memória: tudo está disponível de imediato
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
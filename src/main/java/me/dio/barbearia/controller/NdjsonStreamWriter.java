@@ -0,0 +1,59 @@
+package me.dio.barbearia.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Escreve uma sequência de objetos como NDJSON (um JSON por linha), à medida que são lidos do
+ * banco, sem montar a lista inteira em memória.
+ */
+@Component
+public class NdjsonStreamWriter {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final ObjectMapper objectMapper;
+
+    public NdjsonStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = outputStream -> write(outputStream, source);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    private <T> void write(OutputStream outputStream, Consumer<Consumer<T>> source) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(outputStream);
+        int[] written = {0};
+        try {
+            source.accept(item -> {
+                try {
+                    buffered.write(objectMapper.writeValueAsBytes(item));
+                    buffered.write('\n');
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        buffered.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
+    }
+}
@@ -0,0 +1,43 @@
+package me.dio.barbearia.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.dto.DailyReportResponse;
+import me.dio.barbearia.service.DailyStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/reports")
+@Tag(name = "Relatórios", description = "Ocupação e faturamento diários por serviço")
+public class ReportController {
+
+    private final DailyStatsService dailyStatsService;
+
+    public ReportController(DailyStatsService dailyStatsService) {
+        this.dailyStatsService = dailyStatsService;
+    }
+
+    @GetMapping("/daily")
+    @Operation(summary = "Obtém horários, agendamentos, ocupação e faturamento por dia em um intervalo de datas")
+    public ResponseEntity<DailyReportResponse> daily(@RequestParam LocalDate from, @RequestParam LocalDate to,
+                                                     @RequestParam(required = false) ServiceType type) {
+        return ResponseEntity.ok(dailyStatsService.report(from, to, type));
+    }
+
+    @PostMapping("/daily/reconcile")
+    @Operation(summary = "Recalcula os totais diários do intervalo a partir dos horários e agendamentos")
+    public ResponseEntity<ReconcileResult> reconcile(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        return ResponseEntity.ok(new ReconcileResult(dailyStatsService.reconcile(from, to)));
+    }
+
+    public record ReconcileResult(int changed) {
+    }
+}
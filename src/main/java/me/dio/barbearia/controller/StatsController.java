@@ -0,0 +1,50 @@
+package me.dio.barbearia.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityManagerFactory;
+import me.dio.barbearia.service.AvailabilityCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/stats")
+@Tag(name = "Estatísticas", description = "Indicadores internos de cache da aplicação")
+public class StatsController {
+
+    private final AvailabilityCache availabilityCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public StatsController(AvailabilityCache availabilityCache, EntityManagerFactory entityManagerFactory) {
+        this.availabilityCache = availabilityCache;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @GetMapping("/availability-cache")
+    @Operation(summary = "Obtém acertos, falhas e remoções do cache de horários disponíveis")
+    public ResponseEntity<AvailabilityCache.CacheStats> availabilityCache() {
+        return ResponseEntity.ok(availabilityCache.stats());
+    }
+
+    @GetMapping("/second-level-cache")
+    @Operation(summary = "Obtém as estatísticas do cache de segundo nível do Hibernate (serviços)")
+    public ResponseEntity<SecondLevelCacheStats> secondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return ResponseEntity.ok(new SecondLevelCacheStats(
+                statistics.isStatisticsEnabled(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+    }
+
+    public record SecondLevelCacheStats(boolean enabled, long hits, long misses, long puts,
+                                        long queryHits, long queryMisses, long queryPuts) {
+    }
+}
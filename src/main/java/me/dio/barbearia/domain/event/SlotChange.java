@@ -0,0 +1,9 @@
+package me.dio.barbearia.domain.event;
+
+public enum SlotChange {
+    CREATED,
+    UPDATED,
+    DELETED,
+    BOOKED,
+    FREED
+}
@@ -0,0 +1,26 @@
+package me.dio.barbearia.domain.event;
+
+import me.dio.barbearia.domain.model.AvailableTime;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record SlotChangedEvent(
+        Long slotId,
+        LocalDate date,
+        LocalDate previousDate,
+        LocalTime startTime,
+        LocalTime endTime,
+        Long serviceId,
+        boolean booked,
+        SlotChange change) {
+
+    public static SlotChangedEvent of(AvailableTime slot, SlotChange change) {
+        return of(slot, change, slot.getDate());
+    }
+
+    public static SlotChangedEvent of(AvailableTime slot, SlotChange change, LocalDate previousDate) {
+        return new SlotChangedEvent(slot.getId(), slot.getDate(), previousDate, slot.getStartTime(), slot.getEndTime(),
+                slot.getServiceBarber().getId(), slot.isBooked(), change);
+    }
+}
@@ -6,14 +6,20 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @EqualsAndHashCode(of = "id")
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_appointment_client", columnList = "client_id"),
+        @Index(name = "idx_appointment_date_time", columnList = "date_time")
+})
 public class Appointment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "A data e hora do agendamento não podem ser nulas")
@@ -25,6 +31,10 @@ public class Appointment {
     @NotNull(message = "O agendamento deve estar associado a um serviço")
     private ServiceBarber serviceBarber;
 
+    // Preço do serviço no momento do agendamento, usado no faturamento
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
     @ManyToOne
     @JoinColumn(name = "client_id", nullable = false)
     @NotNull(message = "O agendamento deve estar associado a um cliente")
@@ -0,0 +1,48 @@
+package me.dio.barbearia.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Agendamento já realizado, movido da tabela de agendamentos pelo {@code ArchiveService}. Guarda o
+ * tipo e o preço do serviço na data do arquivamento e apenas os IDs do cliente e do horário, sem
+ * chaves estrangeiras para as tabelas em uso.
+ */
+@Data
+@EqualsAndHashCode(of = "id")
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_archived_appointment_client", columnList = "client_id, id"),
+        @Index(name = "idx_archived_appointment_date_time", columnList = "date_time")
+})
+public class ArchivedAppointment {
+    @Id
+    private Long id;
+
+    @Column(name = "date_time", nullable = false)
+    private LocalDateTime dateTime;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "service_id", nullable = false)
+    private Long serviceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ServiceType serviceType;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private Long availableTimeId;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
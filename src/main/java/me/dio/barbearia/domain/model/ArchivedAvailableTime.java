@@ -0,0 +1,37 @@
+package me.dio.barbearia.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Horário agendado de uma data passada, movido da tabela de horários pelo {@code ArchiveService}.
+ * Horários passados que não foram agendados são apenas removidos.
+ */
+@Data
+@EqualsAndHashCode(of = "id")
+@Entity
+@Table(indexes = @Index(name = "idx_archived_available_time_date", columnList = "date"))
+public class ArchivedAvailableTime {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column(name = "service_id", nullable = false)
+    private Long serviceId;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -12,9 +12,14 @@ import java.time.LocalTime;
 @Data
 @EqualsAndHashCode(of = "id")
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_available_time_date_booked", columnList = "date, is_booked"),
+        @Index(name = "idx_available_time_service_free_date_start", columnList = "service_id, is_booked, date, start_time")
+})
 public class AvailableTime {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "available_time_seq")
+    @SequenceGenerator(name = "available_time_seq", sequenceName = "available_time_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "A data não pode ser nula")
@@ -34,4 +39,7 @@ public class AvailableTime {
     @JoinColumn(name = "service_id", nullable = false)
     @NotNull(message = "O horário disponível deve estar associado a um serviço")
     private ServiceBarber serviceBarber;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
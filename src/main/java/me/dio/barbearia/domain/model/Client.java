@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
+import me.dio.barbearia.util.Cpf;
 import org.hibernate.validator.constraints.br.CPF;
 
 @Data
@@ -25,5 +26,9 @@ public class Client {
     @Pattern(regexp = "\\d{10,11}", message = "O telefone deve conter 10 ou 11 dígitos numéricos")
     @Column(nullable = false, length = 11)
     private String phone;
+
+    public void setCpf(String cpf) {
+        this.cpf = Cpf.normalize(cpf);
+    }
 }
 
@@ -0,0 +1,38 @@
+package me.dio.barbearia.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totais de um serviço em um dia: horários oferecidos, agendamentos e faturamento. Mantidos a cada
+ * alteração de horário ou agendamento e recalculados periodicamente pelo {@code DailyStatsService}.
+ */
+@Data
+@EqualsAndHashCode(of = "id")
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_daily_service_stats_date_service", columnNames = {"date", "service_id"}))
+public class DailyServiceStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "service_id", nullable = false)
+    private ServiceBarber serviceBarber;
+
+    @Column(nullable = false)
+    private long slots;
+
+    @Column(nullable = false)
+    private long appointments;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
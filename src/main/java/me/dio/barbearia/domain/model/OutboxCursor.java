@@ -0,0 +1,23 @@
+package me.dio.barbearia.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Número de sequência do último registro do outbox já entregue a um destino.
+ */
+@Data
+@Entity
+public class OutboxCursor {
+    @Id
+    @Column(length = 64)
+    private String sink;
+
+    @Column(nullable = false)
+    private Long lastSequenceNumber;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,58 @@
+package me.dio.barbearia.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Alteração de um agendamento, cliente ou horário, gravada na mesma transação da alteração e
+ * entregue depois aos sistemas externos pelo {@code OutboxRelay}. A entrega segue o
+ * {@code sequenceNumber}, atribuído depois do commit, e não o {@code id}, reservado em blocos antes
+ * do commit: uma transação que faz commit tarde teria um {@code id} menor que o de registros já
+ * entregues.
+ */
+@Data
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_outbox_record_created_at", columnList = "created_at"),
+        @Index(name = "idx_outbox_record_sequence_number", columnList = "sequence_number", unique = true)
+})
+public class OutboxRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_record_seq")
+    @SequenceGenerator(name = "outbox_record_seq", sequenceName = "outbox_record_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "sequence_number")
+    private Long sequenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AggregateType aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public enum AggregateType {
+        APPOINTMENT,
+        CLIENT,
+        AVAILABLE_TIME
+    }
+
+    public enum Operation {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
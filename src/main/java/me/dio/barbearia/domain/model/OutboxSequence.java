@@ -0,0 +1,21 @@
+package me.dio.barbearia.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Último número de sequência atribuído aos registros do outbox. A linha é bloqueada durante a
+ * numeração, de modo que só uma instância numera registros por vez.
+ */
+@Data
+@Entity
+public class OutboxSequence {
+    public static final String OUTBOX = "outbox";
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastSequenceNumber;
+}
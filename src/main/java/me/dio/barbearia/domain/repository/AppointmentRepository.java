@@ -1,9 +1,58 @@
 package me.dio.barbearia.domain.repository;
 
+import jakarta.persistence.QueryHint;
 import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.dto.AppointmentSummary;
+import me.dio.barbearia.dto.DailyServiceCount;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-}
\ No newline at end of file
+    @Override
+    @EntityGraph(attributePaths = {"client", "serviceBarber", "availableTime", "availableTime.serviceBarber"})
+    List<Appointment> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"client", "serviceBarber", "availableTime", "availableTime.serviceBarber"})
+    Optional<Appointment> findById(Long id);
+
+    @EntityGraph(attributePaths = {"client", "serviceBarber", "availableTime", "availableTime.serviceBarber"})
+    Slice<Appointment> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select a from Appointment a join fetch a.client join fetch a.serviceBarber " +
+            "join fetch a.availableTime t join fetch t.serviceBarber order by a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Appointment> streamAll();
+
+    @Query("select new me.dio.barbearia.dto.AppointmentSummary(a.id, a.dateTime, c.id, c.name, s.type, a.availableTime.id) " +
+            "from Appointment a join a.client c join a.serviceBarber s where a.id > :after")
+    Slice<AppointmentSummary> findSummaries(@Param("after") Long after, Pageable pageable);
+
+    @Query("select new me.dio.barbearia.dto.AppointmentSummary(a.id, a.dateTime, c.id, c.name, s.type, a.availableTime.id) " +
+            "from Appointment a join a.client c join a.serviceBarber s where a.id = :id")
+    Optional<AppointmentSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("select new me.dio.barbearia.dto.DailyServiceCount(t.date, s.id, count(a), sum(a.price)) " +
+            "from Appointment a join a.availableTime t join a.serviceBarber s " +
+            "where t.date between :from and :to group by t.date, s.id")
+    List<DailyServiceCount> countAppointmentsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select a from Appointment a join fetch a.client join fetch a.serviceBarber " +
+            "join fetch a.availableTime t join fetch t.serviceBarber where a.dateTime < :before")
+    List<Appointment> findEndedBefore(@Param("before") LocalDateTime before, Limit limit);
+}
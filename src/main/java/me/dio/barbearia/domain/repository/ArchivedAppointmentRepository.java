@@ -0,0 +1,22 @@
+package me.dio.barbearia.domain.repository;
+
+import me.dio.barbearia.domain.model.ArchivedAppointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    Slice<ArchivedAppointment> findByIdGreaterThan(Long id, Pageable pageable);
+
+    Slice<ArchivedAppointment> findByClientIdAndIdGreaterThan(Long clientId, Long id, Pageable pageable);
+
+    Slice<ArchivedAppointment> findByDateTimeBetweenAndIdGreaterThan(LocalDateTime from, LocalDateTime to, Long id, Pageable pageable);
+
+    Slice<ArchivedAppointment> findByClientIdAndDateTimeBetweenAndIdGreaterThan(Long clientId, LocalDateTime from, LocalDateTime to,
+                                                                                  Long id, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package me.dio.barbearia.domain.repository;
+
+import me.dio.barbearia.domain.model.ArchivedAvailableTime;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ArchivedAvailableTimeRepository extends JpaRepository<ArchivedAvailableTime, Long> {
+
+    Slice<ArchivedAvailableTime> findByDateBetweenAndIdGreaterThan(LocalDate from, LocalDate to, Long id, Pageable pageable);
+}
@@ -1,16 +1,104 @@
 package me.dio.barbearia.domain.repository;
 
+import jakarta.persistence.QueryHint;
 import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.dto.AvailableSlotView;
+import me.dio.barbearia.dto.DailyServiceCount;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AvailableTimeRepository extends JpaRepository<AvailableTime, Long> {
     List<AvailableTime> findByDateAndIsBookedFalse(LocalDate date);
-    Optional<AvailableTime> findByDateAndStartTimeAndEndTimeAndIsBookedFalse(LocalDate date, LocalTime startTime, LocalTime endTime);
+
+    Slice<AvailableTime> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select a from AvailableTime a order by a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<AvailableTime> streamAll();
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.date between :from and :to")
+    List<AvailableSlotView> findSlotsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.date between :from and :to and a.serviceBarber.id in :serviceIds")
+    List<AvailableSlotView> findSlotsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                             @Param("serviceIds") Collection<Long> serviceIds);
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.date = :date and a.serviceBarber.id = :serviceId " +
+            "and a.startTime < :end and a.endTime > :start")
+    List<AvailableSlotView> findOverlapping(@Param("date") LocalDate date, @Param("serviceId") Long serviceId,
+                                            @Param("start") LocalTime start, @Param("end") LocalTime end);
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.date = :date and a.startTime < :end and a.endTime > :start")
+    List<AvailableSlotView> findOverlapping(@Param("date") LocalDate date, @Param("start") LocalTime start,
+                                            @Param("end") LocalTime end);
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.date between :from and :to and a.isBooked = false " +
+            "order by a.date, a.startTime")
+    List<AvailableSlotView> findFreeSlotsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.date between :from and :to and a.isBooked = false and a.serviceBarber.type = :type " +
+            "order by a.date, a.startTime")
+    List<AvailableSlotView> findFreeSlotsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("type") ServiceType type);
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.serviceBarber.id = :serviceId and a.isBooked = false " +
+            "and a.date = :date and a.startTime >= :startTime order by a.startTime, a.id")
+    List<AvailableSlotView> findNextFreeSlotsOnDate(@Param("serviceId") Long serviceId, @Param("date") LocalDate date,
+                                                    @Param("startTime") LocalTime startTime, Limit limit);
+
+    @Query("select new me.dio.barbearia.dto.AvailableSlotView(a.id, a.date, a.startTime, a.endTime, a.serviceBarber.id) " +
+            "from AvailableTime a where a.serviceBarber.id = :serviceId and a.isBooked = false " +
+            "and a.date > :after and a.date <= :until order by a.date, a.startTime, a.id")
+    List<AvailableSlotView> findNextFreeSlotsAfter(@Param("serviceId") Long serviceId, @Param("after") LocalDate after,
+                                                   @Param("until") LocalDate until, Limit limit);
+
+    @Query("select new me.dio.barbearia.dto.DailyServiceCount(a.date, a.serviceBarber.id, count(a)) from AvailableTime a " +
+            "where a.date between :from and :to group by a.date, a.serviceBarber.id")
+    List<DailyServiceCount> countSlotsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select a from AvailableTime a where a.date < :before " +
+            "and not exists (select 1 from Appointment p where p.availableTime = a)")
+    List<AvailableTime> findExpiredBefore(@Param("before") LocalDate before, Limit limit);
+
+    /**
+     * Os UPDATEs abaixo não atualizam as entidades já carregadas na transação (nem limpam o
+     * contexto de persistência, o que desligaria as demais); quem chama recarrega os horários
+     * alterados.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update AvailableTime a set a.isBooked = true, a.version = coalesce(a.version, 0) + 1 where a.id = :id and a.isBooked = false")
+    int markAsBooked(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update AvailableTime a set a.isBooked = true, a.version = coalesce(a.version, 0) + 1 where a.id in :ids and a.isBooked = false")
+    int markAllAsBooked(@Param("ids") Collection<Long> ids);
+
+    @Query("select a from AvailableTime a join fetch a.serviceBarber where a.id in :ids")
+    List<AvailableTime> findAllWithServiceById(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update AvailableTime a set a.isBooked = false, a.version = coalesce(a.version, 0) + 1 where a.id = :id and a.isBooked = true")
+    int markAsFree(@Param("id") Long id);
 }
\ No newline at end of file
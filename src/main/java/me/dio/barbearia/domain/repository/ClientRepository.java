@@ -1,12 +1,37 @@
 package me.dio.barbearia.domain.repository;
 
+import jakarta.persistence.QueryHint;
 import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.dto.ClientCpf;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
-    Optional<Client> findByCpf(String cpf);
+    boolean existsByCpf(String cpf);
+
+    boolean existsByCpfAndIdNot(String cpf, Long id);
+
+    @Query("select c.id from Client c where c.cpf = :cpf")
+    Optional<Long> findIdByCpf(@Param("cpf") String cpf);
+
+    @Query("select new me.dio.barbearia.dto.ClientCpf(c.id, c.cpf) from Client c order by c.id")
+    List<ClientCpf> findCpfs(Limit limit);
+
+    Slice<Client> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select c from Client c order by c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Client> streamAll();
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package me.dio.barbearia.domain.repository;
+
+import me.dio.barbearia.domain.model.DailyServiceStats;
+import me.dio.barbearia.domain.model.ServiceType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyServiceStatsRepository extends JpaRepository<DailyServiceStats, Long> {
+
+    @Query("select d from DailyServiceStats d join fetch d.serviceBarber where d.date between :from and :to order by d.date")
+    List<DailyServiceStats> findBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select d from DailyServiceStats d join fetch d.serviceBarber s " +
+            "where d.date between :from and :to and s.type = :type order by d.date")
+    List<DailyServiceStats> findBetween(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("type") ServiceType type);
+
+    /**
+     * Linhas do intervalo bloqueadas para escrita, na ordem de data e serviço; os incrementos
+     * concorrentes dessas linhas esperam o fim da transação corrente.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from DailyServiceStats d where d.date between :from and :to order by d.date, d.serviceBarber.id")
+    List<DailyServiceStats> findBetweenForUpdate(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Cria as linhas zeradas que faltam para os dias/serviços do intervalo com horários ou
+     * agendamentos.
+     */
+    @Modifying
+    @Query(value = "merge into daily_service_stats d " +
+            "using (select a.date, a.service_id from available_time a where a.date between :from and :to " +
+            "union select t.date, p.service_id from appointment p join available_time t on t.id = p.available_time_id " +
+            "where t.date between :from and :to) v " +
+            "on d.date = v.date and d.service_id = v.service_id " +
+            "when not matched then insert (date, service_id, slots, appointments, revenue) values (v.date, v.service_id, 0, 0, 0)",
+            nativeQuery = true)
+    int createMissing(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Cria a linha zerada do dia/serviço, se ainda não existir, na transação corrente.
+     */
+    @Modifying
+    @Query(value = "merge into daily_service_stats d " +
+            "using (select cast(:date as date) as date, cast(:serviceId as bigint) as service_id) v " +
+            "on d.date = v.date and d.service_id = v.service_id " +
+            "when not matched then insert (date, service_id, slots, appointments, revenue) values (v.date, v.service_id, 0, 0, 0)",
+            nativeQuery = true)
+    int createIfAbsent(@Param("date") LocalDate date, @Param("serviceId") Long serviceId);
+
+    @Modifying
+    @Query("update DailyServiceStats d set d.slots = d.slots + :delta where d.date = :date and d.serviceBarber.id = :serviceId")
+    int addSlots(@Param("date") LocalDate date, @Param("serviceId") Long serviceId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("update DailyServiceStats d set d.appointments = d.appointments + :delta, d.revenue = d.revenue + :amount " +
+            "where d.date = :date and d.serviceBarber.id = :serviceId")
+    int addAppointments(@Param("date") LocalDate date, @Param("serviceId") Long serviceId,
+                        @Param("delta") long delta, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,25 @@
+package me.dio.barbearia.domain.repository;
+
+import me.dio.barbearia.domain.model.OutboxCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, String> {
+
+    /**
+     * Avança o cursor apenas para frente, para que duas instâncias entregando ao mesmo destino não
+     * façam o cursor voltar.
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxCursor c set c.lastSequenceNumber = :lastSequenceNumber, c.updatedAt = :updatedAt " +
+            "where c.sink = :sink and c.lastSequenceNumber < :lastSequenceNumber")
+    int advance(@Param("sink") String sink, @Param("lastSequenceNumber") Long lastSequenceNumber, @Param("updatedAt") Instant updatedAt);
+}
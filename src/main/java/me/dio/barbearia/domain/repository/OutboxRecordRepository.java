@@ -0,0 +1,28 @@
+package me.dio.barbearia.domain.repository;
+
+import me.dio.barbearia.domain.model.OutboxRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxRecordRepository extends JpaRepository<OutboxRecord, Long> {
+
+    Slice<OutboxRecord> findBySequenceNumberGreaterThanOrderBySequenceNumber(Long sequenceNumber, Pageable pageable);
+
+    List<OutboxRecord> findBySequenceNumberIsNullOrderById(Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxRecord r where r.sequenceNumber <= :maxSequenceNumber and r.createdAt < :before")
+    int deleteDelivered(@Param("maxSequenceNumber") Long maxSequenceNumber, @Param("before") Instant before);
+}
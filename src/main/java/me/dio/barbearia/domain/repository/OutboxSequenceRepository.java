@@ -0,0 +1,19 @@
+package me.dio.barbearia.domain.repository;
+
+import jakarta.persistence.LockModeType;
+import me.dio.barbearia.domain.model.OutboxSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxSequenceRepository extends JpaRepository<OutboxSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from OutboxSequence s where s.name = :name")
+    Optional<OutboxSequence> findForUpdate(@Param("name") String name);
+}
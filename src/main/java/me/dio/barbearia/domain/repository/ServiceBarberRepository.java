@@ -1,14 +1,38 @@
 package me.dio.barbearia.domain.repository;
 
-
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import me.dio.barbearia.domain.model.ServiceBarber;
 import me.dio.barbearia.domain.model.ServiceType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ServiceBarberRepository extends JpaRepository<ServiceBarber, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<ServiceBarber> findByType(ServiceType type);
+
+    /**
+     * Bloqueia a linha do serviço até o fim da transação, serializando as alterações de horários do
+     * serviço entre instâncias.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ServiceBarber s where s.id = :id")
+    Optional<ServiceBarber> findForUpdate(@Param("id") Long id);
+
+    /**
+     * Bloqueia todas as linhas de serviço, em ordem de ID, quando a capacidade vale para a barbearia
+     * inteira.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ServiceBarber s order by s.id")
+    List<ServiceBarber> findAllForUpdate();
 }
\ No newline at end of file
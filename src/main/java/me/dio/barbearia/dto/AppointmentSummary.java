@@ -0,0 +1,8 @@
+package me.dio.barbearia.dto;
+
+import me.dio.barbearia.domain.model.ServiceType;
+
+import java.time.LocalDateTime;
+
+public record AppointmentSummary(Long id, LocalDateTime dateTime, Long clientId, String clientName, ServiceType serviceType, Long availableTimeId) {
+}
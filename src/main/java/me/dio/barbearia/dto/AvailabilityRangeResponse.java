@@ -0,0 +1,29 @@
+package me.dio.barbearia.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public record AvailabilityRangeResponse(LocalDate from, LocalDate to, List<ServiceSlots> services) {
+
+    public static AvailabilityRangeResponse of(LocalDate from, LocalDate to, List<AvailableSlotView> slots) {
+        Map<Long, List<Slot>> slotsByService = new LinkedHashMap<>();
+        for (AvailableSlotView slot : slots) {
+            slotsByService.computeIfAbsent(slot.serviceId(), serviceId -> new ArrayList<>())
+                    .add(new Slot(slot.id(), slot.date(), slot.startTime(), slot.endTime()));
+        }
+
+        List<ServiceSlots> services = new ArrayList<>(slotsByService.size());
+        slotsByService.forEach((serviceId, serviceSlots) -> services.add(new ServiceSlots(serviceId, serviceSlots)));
+        return new AvailabilityRangeResponse(from, to, services);
+    }
+
+    public record ServiceSlots(Long serviceId, List<Slot> slots) {
+    }
+
+    public record Slot(Long id, LocalDate date, LocalTime startTime, LocalTime endTime) {
+    }
+}
@@ -0,0 +1,45 @@
+package me.dio.barbearia.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Vários agendamentos do mesmo cliente e serviço (recorrências ou grupos), gravados de uma vez.
+ */
+public record BatchBookingRequest(
+        @NotNull(message = "O ID do cliente não pode ser nulo")
+        Long clientId,
+
+        @NotNull(message = "O ID do serviço não pode ser nulo")
+        Long serviceId,
+
+        Mode mode,
+
+        @NotEmpty(message = "Informe ao menos um horário")
+        @Size(max = 100, message = "Informe no máximo 100 horários por lote")
+        List<@Valid @NotNull Item> items) {
+
+    /**
+     * {@code ALL_OR_NOTHING} (padrão) recusa o lote inteiro se algum horário não puder ser agendado;
+     * {@code BEST_EFFORT} agenda os que puder e devolve os demais como recusados.
+     */
+    public enum Mode {
+        ALL_OR_NOTHING,
+        BEST_EFFORT
+    }
+
+    public record Item(
+            @NotNull(message = "O ID do horário disponível não pode ser nulo")
+            Long availableTimeId,
+
+            @NotNull(message = "A data e hora do agendamento não podem ser nulas")
+            @FutureOrPresent(message = "O agendamento deve ser para hoje ou no futuro")
+            LocalDateTime dateTime) {
+    }
+}
@@ -0,0 +1,11 @@
+package me.dio.barbearia.dto;
+
+import me.dio.barbearia.domain.model.Appointment;
+
+import java.util.List;
+
+public record BatchBookingResult(List<Appointment> created, List<Rejection> rejected) {
+
+    public record Rejection(Long availableTimeId, String message) {
+    }
+}
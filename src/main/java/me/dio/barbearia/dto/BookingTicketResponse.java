@@ -0,0 +1,13 @@
+package me.dio.barbearia.dto;
+
+/**
+ * Situação de um pedido de agendamento assíncrono.
+ */
+public record BookingTicketResponse(String id, Status status, Long appointmentId, String message) {
+
+    public enum Status {
+        PENDING,
+        CONFIRMED,
+        REJECTED
+    }
+}
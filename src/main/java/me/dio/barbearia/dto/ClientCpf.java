@@ -0,0 +1,4 @@
+package me.dio.barbearia.dto;
+
+public record ClientCpf(Long id, String cpf) {
+}
@@ -0,0 +1,58 @@
+package me.dio.barbearia.dto;
+
+import me.dio.barbearia.domain.model.DailyServiceStats;
+import me.dio.barbearia.domain.model.ServiceType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ocupação (agendamentos / horários oferecidos) e faturamento por dia e por serviço.
+ */
+public record DailyReportResponse(LocalDate from, LocalDate to, Totals totals, List<Day> days) {
+
+    public static DailyReportResponse of(LocalDate from, LocalDate to, List<DailyServiceStats> stats) {
+        Map<LocalDate, List<ServiceDay>> servicesByDate = new LinkedHashMap<>();
+        for (DailyServiceStats dailyStats : stats) {
+            servicesByDate.computeIfAbsent(dailyStats.getDate(), date -> new ArrayList<>())
+                    .add(new ServiceDay(dailyStats.getServiceBarber().getType(), Totals.of(dailyStats.getSlots(),
+                            dailyStats.getAppointments(), dailyStats.getRevenue())));
+        }
+
+        List<Day> days = new ArrayList<>(servicesByDate.size());
+        servicesByDate.forEach((date, services) -> days.add(new Day(date, Totals.sum(services.stream().map(ServiceDay::totals).toList()), services)));
+        return new DailyReportResponse(from, to, Totals.sum(days.stream().map(Day::totals).toList()), days);
+    }
+
+    public record Day(LocalDate date, Totals totals, List<ServiceDay> services) {
+    }
+
+    public record ServiceDay(ServiceType type, Totals totals) {
+    }
+
+    public record Totals(long slots, long appointments, BigDecimal occupancy, BigDecimal revenue) {
+
+        static Totals of(long slots, long appointments, BigDecimal revenue) {
+            BigDecimal occupancy = slots == 0 ? BigDecimal.ZERO
+                    : BigDecimal.valueOf(appointments).divide(BigDecimal.valueOf(slots), 4, RoundingMode.HALF_UP);
+            return new Totals(slots, appointments, occupancy, revenue);
+        }
+
+        static Totals sum(List<Totals> parts) {
+            long slots = 0;
+            long appointments = 0;
+            BigDecimal revenue = BigDecimal.ZERO;
+            for (Totals part : parts) {
+                slots += part.slots();
+                appointments += part.appointments();
+                revenue = revenue.add(part.revenue());
+            }
+            return of(slots, appointments, revenue);
+        }
+    }
+}
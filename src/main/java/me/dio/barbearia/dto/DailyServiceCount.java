@@ -0,0 +1,15 @@
+package me.dio.barbearia.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Contagem (e soma dos preços, para agendamentos) de um serviço em um dia, usada na reconciliação dos
+ * totais diários.
+ */
+public record DailyServiceCount(LocalDate date, Long serviceId, long count, BigDecimal amount) {
+
+    public DailyServiceCount(LocalDate date, Long serviceId, long count) {
+        this(date, serviceId, count, BigDecimal.ZERO);
+    }
+}
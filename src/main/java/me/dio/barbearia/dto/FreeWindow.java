@@ -0,0 +1,7 @@
+package me.dio.barbearia.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record FreeWindow(LocalDate date, LocalTime startTime, LocalTime endTime) {
+}
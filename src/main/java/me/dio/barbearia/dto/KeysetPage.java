@@ -0,0 +1,15 @@
+package me.dio.barbearia.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record KeysetPage<T>(List<T> content, Long nextCursor) {
+
+    public static <T> KeysetPage<T> of(Slice<T> slice, Function<T, Long> idExtractor) {
+        List<T> content = slice.getContent();
+        Long nextCursor = slice.hasNext() && !content.isEmpty() ? idExtractor.apply(content.get(content.size() - 1)) : null;
+        return new KeysetPage<>(content, nextCursor);
+    }
+}
@@ -0,0 +1,19 @@
+package me.dio.barbearia.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import me.dio.barbearia.domain.model.OutboxRecord;
+
+import java.time.Instant;
+
+/**
+ * Registro do outbox como é entregue aos destinos: o {@code payload} já está em JSON e é incluído sem
+ * nova serialização. O {@code sequenceNumber} dá a ordem de entrega e serve de cursor.
+ */
+public record OutboxMessage(Long id, Long sequenceNumber, OutboxRecord.AggregateType aggregateType, Long aggregateId,
+                            OutboxRecord.Operation operation, @JsonRawValue String payload, Instant createdAt) {
+
+    public static OutboxMessage of(OutboxRecord outboxRecord) {
+        return new OutboxMessage(outboxRecord.getId(), outboxRecord.getSequenceNumber(), outboxRecord.getAggregateType(),
+                outboxRecord.getAggregateId(), outboxRecord.getOperation(), outboxRecord.getPayload(), outboxRecord.getCreatedAt());
+    }
+}
@@ -0,0 +1,39 @@
+package me.dio.barbearia.dto;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+public record ScheduleTemplate(
+        @NotNull(message = "A data inicial não pode ser nula")
+        @FutureOrPresent(message = "A data inicial deve ser hoje ou no futuro")
+        LocalDate from,
+
+        @NotNull(message = "A data final não pode ser nula")
+        LocalDate to,
+
+        @NotEmpty(message = "Informe ao menos um dia de funcionamento")
+        Set<DayOfWeek> workingDays,
+
+        @NotNull(message = "O horário de abertura não pode ser nulo")
+        LocalTime opening,
+
+        @NotNull(message = "O horário de fechamento não pode ser nulo")
+        LocalTime closing,
+
+        @NotNull(message = "A duração do horário não pode ser nula")
+        @Min(value = 5, message = "A duração do horário deve ser de pelo menos 5 minutos")
+        @Max(value = 480, message = "A duração do horário deve ser de no máximo 480 minutos")
+        Integer slotMinutes,
+
+        @NotEmpty(message = "Informe ao menos um serviço")
+        List<Long> serviceIds) {
+}
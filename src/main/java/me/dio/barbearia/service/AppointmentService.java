@@ -1,17 +1,37 @@
 package me.dio.barbearia.service;
 
+import jakarta.persistence.EntityManager;
 import me.dio.barbearia.domain.model.Appointment;
 import me.dio.barbearia.domain.model.AvailableTime;
 import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.OutboxRecord.Operation;
 import me.dio.barbearia.domain.model.ServiceBarber;
 import me.dio.barbearia.domain.repository.AppointmentRepository;
+import me.dio.barbearia.dto.AppointmentSummary;
+import me.dio.barbearia.dto.BatchBookingRequest;
+import me.dio.barbearia.dto.BatchBookingRequest.Item;
+import me.dio.barbearia.dto.BatchBookingRequest.Mode;
+import me.dio.barbearia.dto.BatchBookingResult;
+import me.dio.barbearia.dto.BatchBookingResult.Rejection;
+import me.dio.barbearia.dto.KeysetPage;
 import me.dio.barbearia.util.BusinessException;
+import me.dio.barbearia.util.Pagination;
+import me.dio.barbearia.util.SlotUnavailableException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
@@ -20,12 +40,24 @@ public class AppointmentService {
     private final ClientService clientService;
     private final ServiceBarberService serviceBarberService;
     private final AvailableTimeService availableTimeService;
+    private final SlotBookingEngine slotBookingEngine;
+    private final BookingMetrics bookingMetrics;
+    private final OutboxService outboxService;
+    private final DailyStatsService dailyStatsService;
+    private final EntityManager entityManager;
 
-    public AppointmentService(AppointmentRepository appointmentRepository, ClientService clientService, ServiceBarberService serviceService, AvailableTimeService availableTimeService) {
+    public AppointmentService(AppointmentRepository appointmentRepository, ClientService clientService, ServiceBarberService serviceService,
+                              AvailableTimeService availableTimeService, SlotBookingEngine slotBookingEngine, BookingMetrics bookingMetrics,
+                              OutboxService outboxService, DailyStatsService dailyStatsService, EntityManager entityManager) {
         this.appointmentRepository = appointmentRepository;
         this.clientService = clientService;
         this.serviceBarberService = serviceService;
         this.availableTimeService = availableTimeService;
+        this.slotBookingEngine = slotBookingEngine;
+        this.bookingMetrics = bookingMetrics;
+        this.outboxService = outboxService;
+        this.dailyStatsService = dailyStatsService;
+        this.entityManager = entityManager;
     }
 
     @Transactional(readOnly = true)
@@ -33,6 +65,26 @@ public class AppointmentService {
         return appointmentRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<Appointment> findPage(Long after, int size) {
+        return KeysetPage.of(appointmentRepository.findByIdGreaterThan(Pagination.cursor(after), Pagination.keyset(size)), Appointment::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Appointment> consumer) {
+        Pagination.forEach(appointmentRepository.streamAll(), entityManager, consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<AppointmentSummary> findSummaries(Long after, int size) {
+        return KeysetPage.of(appointmentRepository.findSummaries(Pagination.cursor(after), Pagination.keyset(size)), AppointmentSummary::id);
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentSummary findSummaryById(Long id) {
+        return appointmentRepository.findSummaryById(id).orElseThrow(() -> new NoSuchElementException("Agendamento não encontrado com ID: " + id));
+    }
+
     @Transactional(readOnly = true)
     public Appointment findById(Long id) {
         return appointmentRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Agendamento não encontrado com ID: " + id));
@@ -40,53 +92,132 @@ public class AppointmentService {
 
     @Transactional
     public Appointment create(Appointment appointmentToCreate) {
+        bookingMetrics.timeTransaction("create");
+        slotBookingEngine.claim(appointmentToCreate.getAvailableTime().getId());
+
+        // Reserva o horário com um único UPDATE condicional antes de carregar as demais entidades
+        AvailableTime availableTime = availableTimeService.book(appointmentToCreate.getAvailableTime().getId());
+
         Client client = clientService.findById(appointmentToCreate.getClient().getId());
         appointmentToCreate.setClient(client);
 
         ServiceBarber serviceBarber = serviceBarberService.findById(appointmentToCreate.getServiceBarber().getId());
         appointmentToCreate.setServiceBarber(serviceBarber);
-
-        AvailableTime availableTime = availableTimeService.findById(appointmentToCreate.getAvailableTime().getId());
-
-        if (availableTime.isBooked()) {
-            throw new BusinessException("O horário selecionado já está agendado.");
-        }
+        appointmentToCreate.setPrice(serviceBarber.getPrice());
 
         LocalDateTime proposedDateTime = appointmentToCreate.getDateTime();
         LocalDateTime startOfAvailableTime = LocalDateTime.of(availableTime.getDate(), availableTime.getStartTime());
-        LocalDateTime endOfAvailableTime = LocalDateTime.of(availableTime.getDate(), availableTime.getEndTime());
 
         if (!proposedDateTime.isEqual(startOfAvailableTime)) {
+            bookingMetrics.conflict(BookingMetrics.TIME_MISMATCH);
             throw new BusinessException("A data e hora do agendamento devem corresponder ao início do horário disponível selecionado.");
         }
 
-        availableTime.setBooked(true);
-        availableTimeService.update(availableTime.getId(), availableTime); // Atualiza o status no banco
-
         appointmentToCreate.setAvailableTime(availableTime);
 
-        return appointmentRepository.save(appointmentToCreate);
+        Appointment createdAppointment = appointmentRepository.save(appointmentToCreate);
+        outboxService.appointmentChanged(createdAppointment, Operation.CREATED);
+        dailyStatsService.addAppointment(availableTime.getDate(), serviceBarber, 1, createdAppointment.getPrice());
+        return createdAppointment;
+    }
+
+    /**
+     * Grava vários agendamentos do mesmo cliente e serviço (recorrências ou grupos) em uma única
+     * transação: cliente e serviço são lidos uma vez, os horários são lidos com uma consulta e
+     * reservados com um único UPDATE, e os agendamentos são inseridos em lote. No modo
+     * {@code BEST_EFFORT}, os horários que não puderem ser agendados voltam como recusados em vez de
+     * desfazer o lote; um horário agendado por outra instância entre a leitura e a reserva ainda
+     * desfaz o lote inteiro.
+     */
+    @Transactional
+    public BatchBookingResult createBatch(BatchBookingRequest request) {
+        bookingMetrics.timeTransaction("batch");
+        boolean bestEffort = request.mode() == Mode.BEST_EFFORT;
+
+        Map<Long, LocalDateTime> requested = new LinkedHashMap<>();
+        for (Item item : request.items()) {
+            if (requested.put(item.availableTimeId(), item.dateTime()) != null) {
+                throw new BusinessException("O horário disponível com ID " + item.availableTimeId() + " foi informado mais de uma vez.");
+            }
+        }
+
+        Client client = clientService.findById(request.clientId());
+        ServiceBarber serviceBarber = serviceBarberService.findById(request.serviceId());
+
+        List<Rejection> rejected = new ArrayList<>();
+        List<Long> claimed = new ArrayList<>(requested.size());
+        for (Long availableTimeId : requested.keySet()) {
+            try {
+                slotBookingEngine.claim(availableTimeId);
+                claimed.add(availableTimeId);
+            } catch (SlotUnavailableException e) {
+                reject(bestEffort, rejected, availableTimeId, e);
+            }
+        }
+
+        // Confere todos os horários antes de qualquer escrita
+        Map<Long, AvailableTime> found = availableTimeService.findAllById(claimed).stream()
+                .collect(Collectors.toMap(AvailableTime::getId, Function.identity()));
+        List<Long> bookable = new ArrayList<>(claimed.size());
+        for (Long availableTimeId : claimed) {
+            AvailableTime availableTime = found.get(availableTimeId);
+            if (availableTime == null) {
+                reject(bestEffort, rejected, availableTimeId, new NoSuchElementException("Horário disponível não encontrado com ID: " + availableTimeId));
+            } else if (availableTime.isBooked()) {
+                bookingMetrics.conflict(BookingMetrics.SLOT_ALREADY_BOOKED);
+                reject(bestEffort, rejected, availableTimeId, new SlotUnavailableException("O horário selecionado já está agendado."));
+            } else if (!requested.get(availableTimeId).isEqual(LocalDateTime.of(availableTime.getDate(), availableTime.getStartTime()))) {
+                bookingMetrics.conflict(BookingMetrics.TIME_MISMATCH);
+                reject(bestEffort, rejected, availableTimeId, new BusinessException("A data e hora do agendamento devem corresponder ao início do horário disponível selecionado."));
+            } else {
+                bookable.add(availableTimeId);
+            }
+        }
+        if (bookable.isEmpty()) {
+            return new BatchBookingResult(List.of(), rejected);
+        }
+
+        Map<Long, AvailableTime> booked = availableTimeService.bookAll(bookable).stream()
+                .collect(Collectors.toMap(AvailableTime::getId, Function.identity()));
+        List<Appointment> appointments = new ArrayList<>(bookable.size());
+        Map<LocalDate, Integer> appointmentsByDate = new TreeMap<>();
+        for (Long availableTimeId : bookable) {
+            AvailableTime availableTime = booked.get(availableTimeId);
+            Appointment appointment = new Appointment();
+            appointment.setDateTime(requested.get(availableTimeId));
+            appointment.setClient(client);
+            appointment.setServiceBarber(serviceBarber);
+            appointment.setPrice(serviceBarber.getPrice());
+            appointment.setAvailableTime(availableTime);
+            appointments.add(appointment);
+            appointmentsByDate.merge(availableTime.getDate(), 1, Integer::sum);
+        }
+
+        List<Appointment> createdAppointments = appointmentRepository.saveAll(appointments);
+        createdAppointments.forEach(appointment -> outboxService.appointmentChanged(appointment, Operation.CREATED));
+        appointmentsByDate.forEach((date, count) -> dailyStatsService.addAppointment(date, serviceBarber, count, serviceBarber.getPrice()));
+        return new BatchBookingResult(createdAppointments, rejected);
     }
 
     @Transactional
     public Appointment update(Long id, Appointment appointmentToUpdate) {
+        bookingMetrics.timeTransaction("update");
         Appointment dbAppointment = appointmentRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Agendamento não encontrado com ID: " + id));
 
         if (dbAppointment.getDateTime().isBefore(LocalDateTime.now())) {
+            bookingMetrics.conflict(BookingMetrics.APPOINTMENT_IN_PAST);
             throw new BusinessException("Não é possível alterar um agendamento que já ocorreu.");
         }
 
+        LocalDate previousDate = dbAppointment.getAvailableTime().getDate();
+        ServiceBarber previousServiceBarber = dbAppointment.getServiceBarber();
+        BigDecimal previousPrice = dbAppointment.getPrice();
+
         if (!dbAppointment.getAvailableTime().getId().equals(appointmentToUpdate.getAvailableTime().getId())) {
-            AvailableTime oldAvailableTime = dbAppointment.getAvailableTime();
-            oldAvailableTime.setBooked(false);
-            availableTimeService.update(oldAvailableTime.getId(), oldAvailableTime);
+            slotBookingEngine.claim(appointmentToUpdate.getAvailableTime().getId());
 
-            AvailableTime newAvailableTime = availableTimeService.findById(appointmentToUpdate.getAvailableTime().getId());
-            if (newAvailableTime.isBooked()) {
-                throw new BusinessException("O novo horário selecionado já está agendado.");
-            }
-            newAvailableTime.setBooked(true);
-            availableTimeService.update(newAvailableTime.getId(), newAvailableTime);
+            availableTimeService.release(dbAppointment.getAvailableTime().getId());
+            AvailableTime newAvailableTime = availableTimeService.book(appointmentToUpdate.getAvailableTime().getId());
             dbAppointment.setAvailableTime(newAvailableTime);
         }
 
@@ -95,19 +226,37 @@ public class AppointmentService {
 
         dbAppointment.setClient(client);
         dbAppointment.setServiceBarber(serviceBarber);
+        if (!serviceBarber.getId().equals(previousServiceBarber.getId())) {
+            dbAppointment.setPrice(serviceBarber.getPrice());
+        }
         dbAppointment.setDateTime(appointmentToUpdate.getDateTime());
 
-        return appointmentRepository.save(dbAppointment);
+        Appointment updatedAppointment = appointmentRepository.save(dbAppointment);
+        outboxService.appointmentChanged(updatedAppointment, Operation.UPDATED);
+        LocalDate newDate = updatedAppointment.getAvailableTime().getDate();
+        if (!newDate.equals(previousDate) || !serviceBarber.getId().equals(previousServiceBarber.getId())) {
+            dailyStatsService.addAppointment(previousDate, previousServiceBarber, -1, previousPrice);
+            dailyStatsService.addAppointment(newDate, serviceBarber, 1, updatedAppointment.getPrice());
+        }
+        return updatedAppointment;
     }
 
     @Transactional
     public void delete(Long id) {
+        bookingMetrics.timeTransaction("delete");
         Appointment dbAppointment = appointmentRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Agendamento não encontrado com ID: " + id));
 
-        AvailableTime availableTime = dbAppointment.getAvailableTime();
-        availableTime.setBooked(false);
-        availableTimeService.update(availableTime.getId(), availableTime);
+        Long availableTimeId = dbAppointment.getAvailableTime().getId();
+        appointmentRepository.delete(dbAppointment);
+        outboxService.appointmentChanged(dbAppointment, Operation.DELETED);
+        dailyStatsService.addAppointment(dbAppointment.getAvailableTime().getDate(), dbAppointment.getServiceBarber(), -1, dbAppointment.getPrice());
+        availableTimeService.release(availableTimeId);
+    }
 
-        appointmentRepository.deleteById(id);
+    private static void reject(boolean bestEffort, List<Rejection> rejected, Long availableTimeId, RuntimeException reason) {
+        if (!bestEffort) {
+            throw reason;
+        }
+        rejected.add(new Rejection(availableTimeId, reason.getMessage()));
     }
 }
\ No newline at end of file
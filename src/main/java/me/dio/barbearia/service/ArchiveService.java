@@ -0,0 +1,303 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.ArchivedAppointment;
+import me.dio.barbearia.domain.model.ArchivedAvailableTime;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.repository.AppointmentRepository;
+import me.dio.barbearia.domain.repository.ArchivedAppointmentRepository;
+import me.dio.barbearia.domain.repository.ArchivedAvailableTimeRepository;
+import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.dto.KeysetPage;
+import me.dio.barbearia.util.BusinessException;
+import me.dio.barbearia.util.Pagination;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Mantém as tabelas de agendamentos e horários restritas ao período em uso, movendo para as tabelas
+ * de arquivo o que é anterior ao horizonte ({@code retention-days} antes de hoje).
+ * <p>
+ * Cada rodada processa lotes de até {@code batch-size} linhas, cada lote em sua própria transação,
+ * para não manter bloqueios longos nem um contexto de persistência grande. Primeiro são arquivados
+ * os agendamentos junto com seus horários; depois, os horários passados que restaram são removidos
+ * (os marcados como agendados, sem agendamento, também são arquivados). O arquivamento não gera
+ * registros no outbox nem eventos de horários, já que não é uma alteração feita pelo usuário.
+ * <p>
+ * Só uma rodada executa por vez: a agendada e a disparada por {@code POST /archive/run} leriam os
+ * mesmos lotes e tentariam arquivar as mesmas linhas.
+ */
+@Service
+public class ArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final AvailableTimeRepository availableTimeRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final ArchivedAvailableTimeRepository archivedAvailableTimeRepository;
+    private final AvailabilityCache availabilityCache;
+    private final SlotIntervalIndex slotIntervalIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Timer runs;
+    private final Counter archivedAppointments;
+    private final Counter archivedAvailableTimes;
+    private final Counter purgedAvailableTimes;
+
+    public ArchiveService(AppointmentRepository appointmentRepository, AvailableTimeRepository availableTimeRepository,
+                          ArchivedAppointmentRepository archivedAppointmentRepository,
+                          ArchivedAvailableTimeRepository archivedAvailableTimeRepository, AvailabilityCache availabilityCache,
+                          SlotIntervalIndex slotIntervalIndex, EntityManager entityManager, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          @Value("${barbearia.archive.enabled:true}") boolean enabled,
+                          @Value("${barbearia.archive.retention-days:30}") int retentionDays,
+                          @Value("${barbearia.archive.batch-size:500}") int batchSize,
+                          @Value("${barbearia.archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.appointmentRepository = appointmentRepository;
+        this.availableTimeRepository = availableTimeRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.archivedAvailableTimeRepository = archivedAvailableTimeRepository;
+        this.availabilityCache = availabilityCache;
+        this.slotIntervalIndex = slotIntervalIndex;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.runs = Timer.builder("barbearia.archive.runs")
+                .description("Duração das rodadas de arquivamento")
+                .register(meterRegistry);
+        this.archivedAppointments = rows(meterRegistry, "appointment", "archived");
+        this.archivedAvailableTimes = rows(meterRegistry, "available_time", "archived");
+        this.purgedAvailableTimes = rows(meterRegistry, "available_time", "purged");
+    }
+
+    @Scheduled(cron = "${barbearia.archive.cron:0 0 3 * * *}")
+    public void archiveScheduled() {
+        if (enabled && archive().isEmpty()) {
+            log.info("Arquivamento agendado ignorado: outra rodada está em andamento");
+        }
+    }
+
+    /**
+     * Primeira data mantida nas tabelas em uso; tudo o que é anterior a ela é arquivado ou removido.
+     */
+    public LocalDate horizon() {
+        return enabled ? LocalDate.now().minusDays(retentionDays) : LocalDate.MIN;
+    }
+
+    /**
+     * Executa uma rodada de arquivamento, limitada a {@code max-batches-per-run} lotes de cada etapa.
+     *
+     * @return o resultado da rodada, ou vazio se outra rodada já estiver em andamento
+     */
+    public Optional<ArchiveResult> archive() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(runs.record(this::archiveBatches));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ArchiveResult archiveBatches() {
+        LocalDate horizon = horizon();
+        long appointments = 0;
+        long archivedSlots = 0;
+        long purgedSlots = 0;
+        boolean completed = false;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Batch appointmentBatch = run(() -> archiveAppointments(horizon));
+            appointments += appointmentBatch.appointments();
+            archivedSlots += appointmentBatch.archivedSlots();
+            if (appointmentBatch.appointments() < batchSize) {
+                completed = true;
+                break;
+            }
+        }
+
+        if (completed) {
+            completed = false;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Batch slotBatch = run(() -> purgeAvailableTimes(horizon));
+                archivedSlots += slotBatch.archivedSlots();
+                purgedSlots += slotBatch.purgedSlots();
+                if (slotBatch.archivedSlots() + slotBatch.purgedSlots() < batchSize) {
+                    completed = true;
+                    break;
+                }
+            }
+        }
+
+        log.info("Arquivamento anterior a {}: {} agendamentos e {} horários arquivados, {} horários livres removidos{}",
+                horizon, appointments, archivedSlots, purgedSlots, completed ? "" : " (continua na próxima rodada)");
+        return new ArchiveResult(horizon, appointments, archivedSlots, purgedSlots, completed);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<ArchivedAppointment> findAppointments(Long clientId, LocalDate from, LocalDate to, Long after, int size) {
+        long cursor = Pagination.cursor(after);
+        Pageable pageable = Pagination.keyset(size);
+        Slice<ArchivedAppointment> appointments;
+        if (from == null && to == null) {
+            appointments = clientId == null
+                    ? archivedAppointmentRepository.findByIdGreaterThan(cursor, pageable)
+                    : archivedAppointmentRepository.findByClientIdAndIdGreaterThan(clientId, cursor, pageable);
+        } else {
+            validateRange(from, to);
+            LocalDateTime start = from.atStartOfDay();
+            LocalDateTime end = to.atTime(LocalTime.MAX);
+            appointments = clientId == null
+                    ? archivedAppointmentRepository.findByDateTimeBetweenAndIdGreaterThan(start, end, cursor, pageable)
+                    : archivedAppointmentRepository.findByClientIdAndDateTimeBetweenAndIdGreaterThan(clientId, start, end, cursor, pageable);
+        }
+        return KeysetPage.of(appointments, ArchivedAppointment::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<ArchivedAvailableTime> findAvailableTimes(LocalDate from, LocalDate to, Long after, int size) {
+        validateRange(from, to);
+        return KeysetPage.of(archivedAvailableTimeRepository.findByDateBetweenAndIdGreaterThan(
+                from, to, Pagination.cursor(after), Pagination.keyset(size)), ArchivedAvailableTime::getId);
+    }
+
+    /**
+     * Executa o lote em uma transação e, depois do commit, invalida os caches das datas alteradas e
+     * atualiza as métricas.
+     */
+    private Batch run(Supplier<Batch> batch) {
+        Batch result = transactionTemplate.execute(status -> batch.get());
+        result.dates().forEach(availabilityCache::invalidate);
+        result.dates().forEach(slotIntervalIndex::invalidate);
+        archivedAppointments.increment(result.appointments());
+        archivedAvailableTimes.increment(result.archivedSlots());
+        purgedAvailableTimes.increment(result.purgedSlots());
+        return result;
+    }
+
+    private Batch archiveAppointments(LocalDate horizon) {
+        List<Appointment> appointments = appointmentRepository.findEndedBefore(horizon.atStartOfDay(), Limit.of(batchSize));
+        if (appointments.isEmpty()) {
+            return Batch.EMPTY;
+        }
+
+        Instant now = Instant.now();
+        Set<LocalDate> dates = new HashSet<>();
+        for (Appointment appointment : appointments) {
+            entityManager.persist(archived(appointment, now));
+            entityManager.persist(archived(appointment.getAvailableTime(), now));
+            dates.add(appointment.getAvailableTime().getDate());
+        }
+        entityManager.flush();
+        appointmentRepository.deleteAllByIdInBatch(appointments.stream().map(Appointment::getId).toList());
+        availableTimeRepository.deleteAllByIdInBatch(appointments.stream().map(appointment -> appointment.getAvailableTime().getId()).toList());
+        entityManager.clear();
+        return new Batch(appointments.size(), appointments.size(), 0, dates);
+    }
+
+    private Batch purgeAvailableTimes(LocalDate horizon) {
+        List<AvailableTime> availableTimes = availableTimeRepository.findExpiredBefore(horizon, Limit.of(batchSize));
+        if (availableTimes.isEmpty()) {
+            return Batch.EMPTY;
+        }
+
+        Instant now = Instant.now();
+        Set<LocalDate> dates = new HashSet<>();
+        int archived = 0;
+        for (AvailableTime availableTime : availableTimes) {
+            if (availableTime.isBooked()) {
+                entityManager.persist(archived(availableTime, now));
+                archived++;
+            }
+            dates.add(availableTime.getDate());
+        }
+        entityManager.flush();
+        availableTimeRepository.deleteAllByIdInBatch(availableTimes.stream().map(AvailableTime::getId).toList());
+        entityManager.clear();
+        return new Batch(0, archived, availableTimes.size() - archived, dates);
+    }
+
+    private static ArchivedAppointment archived(Appointment appointment, Instant archivedAt) {
+        ArchivedAppointment archivedAppointment = new ArchivedAppointment();
+        archivedAppointment.setId(appointment.getId());
+        archivedAppointment.setDateTime(appointment.getDateTime());
+        archivedAppointment.setClientId(appointment.getClient().getId());
+        archivedAppointment.setServiceId(appointment.getServiceBarber().getId());
+        archivedAppointment.setServiceType(appointment.getServiceBarber().getType());
+        archivedAppointment.setPrice(appointment.getPrice());
+        archivedAppointment.setAvailableTimeId(appointment.getAvailableTime().getId());
+        archivedAppointment.setArchivedAt(archivedAt);
+        return archivedAppointment;
+    }
+
+    private static ArchivedAvailableTime archived(AvailableTime availableTime, Instant archivedAt) {
+        ArchivedAvailableTime archivedAvailableTime = new ArchivedAvailableTime();
+        archivedAvailableTime.setId(availableTime.getId());
+        archivedAvailableTime.setDate(availableTime.getDate());
+        archivedAvailableTime.setStartTime(availableTime.getStartTime());
+        archivedAvailableTime.setEndTime(availableTime.getEndTime());
+        archivedAvailableTime.setServiceId(availableTime.getServiceBarber().getId());
+        archivedAvailableTime.setArchivedAt(archivedAt);
+        return archivedAvailableTime;
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BusinessException("Informe as datas inicial e final.");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("A data inicial deve ser anterior ou igual à data final.");
+        }
+    }
+
+    private static Counter rows(MeterRegistry meterRegistry, String table, String action) {
+        return Counter.builder("barbearia.archive.rows")
+                .description("Linhas movidas para o arquivo ou removidas das tabelas em uso")
+                .tag("table", table)
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    public record ArchiveResult(LocalDate horizon, long appointments, long archivedAvailableTimes,
+                                long purgedAvailableTimes, boolean completed) {
+    }
+
+    private record Batch(int appointments, int archivedSlots, int purgedSlots, Set<LocalDate> dates) {
+
+        static final Batch EMPTY = new Batch(0, 0, 0, Set.of());
+    }
+}
@@ -0,0 +1,300 @@
+package me.dio.barbearia.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.dto.BookingTicketResponse;
+import me.dio.barbearia.dto.BookingTicketResponse.Status;
+import me.dio.barbearia.util.BusinessException;
+import me.dio.barbearia.util.SlotUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agendamento assíncrono para picos de pedidos pelos mesmos horários (abertura de agenda).
+ * <p>
+ * Os pedidos vão para uma fila escolhida pelo ID do horário, e cada fila tem uma única thread
+ * consumidora; assim, pedidos para o mesmo horário nunca disputam o banco entre si. A cada rodada
+ * a thread retira até {@code batch-size} pedidos, agrupa-os por horário e grava o primeiro de cada
+ * grupo com {@link AppointmentService#create}, todos na mesma transação. Os demais pedidos do grupo
+ * são recusados sem acessar o banco. Se a transação em lote falhar, cada pedido é refeito na sua
+ * própria transação, e o próximo da fila assume o horário quando o primeiro é recusado por um
+ * motivo só dele (cliente ou serviço inexistente, data diferente da do horário). Uma falha
+ * inesperada (banco indisponível, por exemplo) recusa o grupo inteiro: a situação do horário é
+ * desconhecida, e tentar os pedidos seguintes só repetiria a falha.
+ */
+@Service
+public class AsyncBookingService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncBookingService.class);
+    private static final String SLOT_TAKEN = "O horário selecionado já está agendado.";
+    private static final String FAILED = "Não foi possível concluir o agendamento.";
+
+    private final AppointmentService appointmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxTickets;
+    private final Duration ticketTtl;
+
+    private final List<BlockingQueue<BookingTicket>> partitions = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<String, BookingTicket> tickets = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public AsyncBookingService(AppointmentService appointmentService, PlatformTransactionManager transactionManager,
+                               @Value("${barbearia.async-booking.partitions:4}") int partitions,
+                               @Value("${barbearia.async-booking.queue-capacity:10000}") int queueCapacity,
+                               @Value("${barbearia.async-booking.batch-size:50}") int batchSize,
+                               @Value("${barbearia.async-booking.max-tickets:100000}") int maxTickets,
+                               @Value("${barbearia.async-booking.ticket-ttl:10m}") Duration ticketTtl) {
+        this.appointmentService = appointmentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxTickets = maxTickets;
+        this.ticketTtl = ticketTtl;
+        for (int i = 0; i < partitions; i++) {
+            this.partitions.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (int i = 0; i < partitions.size(); i++) {
+            BlockingQueue<BookingTicket> queue = partitions.get(i);
+            workers.add(Thread.ofPlatform().name("async-booking-" + i).daemon().start(() -> work(queue)));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        for (BlockingQueue<BookingTicket> queue : partitions) {
+            List<BookingTicket> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            pending.forEach(ticket -> ticket.reject("O serviço foi encerrado antes de processar o pedido."));
+        }
+    }
+
+    /**
+     * Enfileira um pedido de agendamento.
+     *
+     * @return o ticket do pedido, ou vazio se a fila estiver cheia
+     */
+    public Optional<BookingTicketResponse> submit(Appointment appointmentToCreate) {
+        BookingRequest request = BookingRequest.of(appointmentToCreate);
+        if (tickets.size() >= maxTickets) {
+            return Optional.empty();
+        }
+        BookingTicket ticket = new BookingTicket(UUID.randomUUID().toString(), request);
+        tickets.put(ticket.id, ticket);
+        if (!partitions.get(Math.floorMod(request.availableTimeId().hashCode(), partitions.size())).offer(ticket)) {
+            tickets.remove(ticket.id);
+            return Optional.empty();
+        }
+        return Optional.of(ticket.view());
+    }
+
+    public BookingTicketResponse findTicket(String id) {
+        return ticket(id).view();
+    }
+
+    /**
+     * Aguarda até {@code wait} pela conclusão do pedido; se ele não terminar, devolve a situação atual.
+     */
+    public CompletableFuture<BookingTicketResponse> awaitTicket(String id, Duration wait) {
+        BookingTicket ticket = ticket(id);
+        if (wait.isZero() || ticket.completion.isDone()) {
+            return CompletableFuture.completedFuture(ticket.view());
+        }
+        return ticket.completion.copy().completeOnTimeout(ticket.view(), wait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${barbearia.async-booking.ticket-purge-interval:1m}")
+    public void purgeExpiredTickets() {
+        Instant limit = Instant.now().minus(ticketTtl);
+        tickets.values().removeIf(ticket -> ticket.completion.isDone() && ticket.completedAt.isBefore(limit));
+    }
+
+    private BookingTicket ticket(String id) {
+        BookingTicket ticket = tickets.get(id);
+        if (ticket == null) {
+            throw new NoSuchElementException("Pedido de agendamento não encontrado com ID: " + id);
+        }
+        return ticket;
+    }
+
+    private void work(BlockingQueue<BookingTicket> queue) {
+        List<BookingTicket> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                BookingTicket first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha inesperada ao processar pedidos de agendamento", e);
+                batch.forEach(ticket -> ticket.reject("Falha inesperada ao processar o pedido."));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<BookingTicket> batch) {
+        Map<Long, List<BookingTicket>> bySlot = new LinkedHashMap<>();
+        for (BookingTicket ticket : batch) {
+            bySlot.computeIfAbsent(ticket.request.availableTimeId(), slotId -> new ArrayList<>()).add(ticket);
+        }
+
+        List<BookingTicket> leaders = bySlot.values().stream().map(tickets -> tickets.get(0)).toList();
+        if (commitTogether(leaders)) {
+            bySlot.values().forEach(tickets -> tickets.subList(1, tickets.size()).forEach(ticket -> ticket.reject(SLOT_TAKEN)));
+            return;
+        }
+
+        for (List<BookingTicket> tickets : bySlot.values()) {
+            int next = 0;
+            Attempt attempt = commitAlone(tickets.get(next));
+            while (attempt == Attempt.RETRY_NEXT && ++next < tickets.size()) {
+                attempt = commitAlone(tickets.get(next));
+            }
+            String reason = attempt == Attempt.FAILED ? FAILED : SLOT_TAKEN;
+            tickets.subList(Math.min(next + 1, tickets.size()), tickets.size()).forEach(ticket -> ticket.reject(reason));
+        }
+    }
+
+    private boolean commitTogether(List<BookingTicket> leaders) {
+        List<Long> appointmentIds;
+        try {
+            appointmentIds = transactionTemplate.execute(status -> leaders.stream()
+                    .map(ticket -> appointmentService.create(ticket.request.toAppointment()).getId())
+                    .toList());
+        } catch (RuntimeException e) {
+            return false;
+        }
+        for (int i = 0; i < leaders.size(); i++) {
+            leaders.get(i).confirm(appointmentIds.get(i));
+        }
+        return true;
+    }
+
+    private Attempt commitAlone(BookingTicket ticket) {
+        try {
+            ticket.confirm(appointmentService.create(ticket.request.toAppointment()).getId());
+            return Attempt.DONE;
+        } catch (SlotUnavailableException e) {
+            ticket.reject(e.getMessage());
+            return Attempt.DONE;
+        } catch (BusinessException | NoSuchElementException e) {
+            ticket.reject(e.getMessage());
+            return Attempt.RETRY_NEXT;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar o pedido de agendamento {}", ticket.id, e);
+            ticket.reject(FAILED);
+            return Attempt.FAILED;
+        }
+    }
+
+    private enum Attempt {
+        DONE,
+        RETRY_NEXT,
+        FAILED
+    }
+
+    /**
+     * Dados do pedido guardados por valor: a cada tentativa é montado um novo {@link Appointment},
+     * já que uma transação desfeita pode deixar o anterior com ID e associações preenchidos.
+     */
+    private record BookingRequest(LocalDateTime dateTime, Long clientId, Long serviceId, Long availableTimeId) {
+
+        static BookingRequest of(Appointment appointment) {
+            if (appointment.getAvailableTime().getId() == null || appointment.getClient().getId() == null
+                    || appointment.getServiceBarber().getId() == null) {
+                throw new BusinessException("Informe os IDs do cliente, do serviço e do horário disponível.");
+            }
+            return new BookingRequest(appointment.getDateTime(), appointment.getClient().getId(),
+                    appointment.getServiceBarber().getId(), appointment.getAvailableTime().getId());
+        }
+
+        Appointment toAppointment() {
+            Client client = new Client();
+            client.setId(clientId);
+            ServiceBarber serviceBarber = new ServiceBarber();
+            serviceBarber.setId(serviceId);
+            AvailableTime availableTime = new AvailableTime();
+            availableTime.setId(availableTimeId);
+
+            Appointment appointment = new Appointment();
+            appointment.setDateTime(dateTime);
+            appointment.setClient(client);
+            appointment.setServiceBarber(serviceBarber);
+            appointment.setAvailableTime(availableTime);
+            return appointment;
+        }
+    }
+
+    private static final class BookingTicket {
+
+        private final String id;
+        private final BookingRequest request;
+        private final CompletableFuture<BookingTicketResponse> completion = new CompletableFuture<>();
+        private volatile Instant completedAt;
+
+        private BookingTicket(String id, BookingRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        BookingTicketResponse view() {
+            return completion.isDone() ? completion.join() : new BookingTicketResponse(id, Status.PENDING, null, null);
+        }
+
+        void confirm(Long appointmentId) {
+            complete(new BookingTicketResponse(id, Status.CONFIRMED, appointmentId, null));
+        }
+
+        void reject(String message) {
+            complete(new BookingTicketResponse(id, Status.REJECTED, null, message));
+        }
+
+        private void complete(BookingTicketResponse response) {
+            completedAt = Instant.now();
+            completion.complete(response);
+        }
+    }
+}
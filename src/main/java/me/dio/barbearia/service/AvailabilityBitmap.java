@@ -0,0 +1,293 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.dio.barbearia.domain.event.SlotChangedEvent;
+import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.dto.AvailableSlotView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Índice compacto dos horários livres: para cada data e serviço, um bit por posição da grade de
+ * {@code barbearia.slots.grid-minutes} minutos (48 posições, um único {@code long}, na grade de 30
+ * minutos), mais o ID do horário de cada posição.
+ * <p>
+ * Cobre as datas de hoje até {@code days-ahead} dias à frente. É montado quando a aplicação termina
+ * de subir e atualizado depois do commit de cada alteração de horário feita nesta instância
+ * (inclusive agendamentos e cancelamentos, que marcam e liberam o horário). Alterações feitas por
+ * outras instâncias não geram eventos aqui: a janela inteira é recarregada a cada
+ * {@code refresh-interval}, e uma data carregada há mais de {@code max-staleness} deixa de ser
+ * coberta até a próxima recarga. Como no {@link AvailabilityCache}, uma data alterada durante a
+ * recarga mantém a versão anterior (já atualizada pelo evento) e é recarregada na rodada seguinte.
+ * <p>
+ * Uma data com algum horário fora da grade (início desalinhado, duração diferente ou dois horários
+ * do mesmo serviço na mesma posição) deixa de ser coberta, e as consultas dessa data voltam ao banco.
+ */
+@Component
+public class AvailabilityBitmap {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityBitmap.class);
+    private static final int GENERATION_STRIPES = 64;
+
+    private final AvailableTimeRepository availableTimeRepository;
+    private final boolean enabled;
+    private final int gridSeconds;
+    private final int positions;
+    private final int daysAhead;
+    private final long maxStalenessNanos;
+
+    private final Map<LocalDate, Day> days = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public AvailabilityBitmap(AvailableTimeRepository availableTimeRepository, MeterRegistry meterRegistry,
+                              @Value("${barbearia.slot-bitmap.enabled:true}") boolean enabled,
+                              @Value("${barbearia.slots.grid-minutes:30}") int gridMinutes,
+                              @Value("${barbearia.slot-bitmap.days-ahead:180}") int daysAhead,
+                              @Value("${barbearia.slot-bitmap.max-staleness:60s}") Duration maxStaleness) {
+        this.availableTimeRepository = availableTimeRepository;
+        this.enabled = enabled;
+        this.gridSeconds = gridMinutes * 60;
+        this.positions = 24 * 60 / gridMinutes;
+        this.daysAhead = daysAhead;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        Gauge.builder("barbearia.slot.bitmap.dates", days, Map::size)
+                .description("Datas cobertas pelo índice de horários livres")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        refresh();
+    }
+
+    /**
+     * Remove as datas passadas e recarrega, com duas consultas, todas as datas da janela.
+     */
+    @Scheduled(fixedDelayString = "${barbearia.slot-bitmap.refresh-interval:30s}",
+            initialDelayString = "${barbearia.slot-bitmap.refresh-interval:30s}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate first = LocalDate.now();
+        LocalDate last = first.plusDays(daysAhead);
+        days.keySet().removeIf(date -> date.isBefore(first) || date.isAfter(last));
+
+        long[] startGenerations = new long[GENERATION_STRIPES];
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            startGenerations[stripe] = generations.get(stripe);
+        }
+        long loadedAt = System.nanoTime();
+        Map<LocalDate, Day> loaded = new HashMap<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            loaded.put(date, new Day(loadedAt));
+        }
+        for (AvailableSlotView slot : availableTimeRepository.findSlotsBetween(first, last)) {
+            loaded.get(slot.date()).put(slot.serviceId(), slot.id(), slot.startTime(), slot.endTime(), false);
+        }
+        // A primeira consulta traz todas as posições ocupadas por horários; esta marca as livres
+        for (AvailableSlotView slot : availableTimeRepository.findFreeSlotsBetween(first, last)) {
+            loaded.get(slot.date()).setFree(slot.serviceId(), slot.startTime(), true);
+        }
+
+        int skipped = 0;
+        synchronized (this) {
+            for (Map.Entry<LocalDate, Day> entry : loaded.entrySet()) {
+                int stripe = stripe(entry.getKey());
+                if (generations.get(stripe) == startGenerations[stripe]) {
+                    days.put(entry.getKey(), entry.getValue());
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        log.debug("Índice de horários livres recarregado de {} a {} ({} datas alteradas durante a carga)", first, last, skipped);
+    }
+
+    /**
+     * Indica se a data é respondida pelo índice.
+     */
+    public boolean covers(LocalDate date) {
+        Day day = days.get(date);
+        return day != null && day.onGrid && System.nanoTime() - day.loadedAt <= maxStalenessNanos;
+    }
+
+    /**
+     * Acrescenta a {@code target} os horários livres da data, de todos os serviços ou de um só; os
+     * de cada serviço vêm em ordem de início. A data deve ser coberta pelo índice.
+     */
+    public void collectFree(LocalDate date, Long serviceId, List<AvailableSlotView> target) {
+        Day day = days.get(date);
+        synchronized (day) {
+            for (Map.Entry<Long, ServiceDay> entry : day.services.entrySet()) {
+                if (serviceId == null || serviceId.equals(entry.getKey())) {
+                    collect(date, entry.getKey(), entry.getValue(), 0, Integer.MAX_VALUE, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Acrescenta a {@code target} até {@code limit} horários livres do serviço na data, a partir de
+     * {@code from}. A data deve ser coberta pelo índice.
+     *
+     * @return quantos horários foram acrescentados
+     */
+    public int collectNext(LocalDate date, Long serviceId, LocalTime from, int limit, List<AvailableSlotView> target) {
+        Day day = days.get(date);
+        synchronized (day) {
+            ServiceDay serviceDay = day.services.get(serviceId);
+            if (serviceDay == null) {
+                return 0;
+            }
+            int firstPosition = (from.toSecondOfDay() + gridSeconds - 1) / gridSeconds;
+            return collect(date, serviceId, serviceDay, firstPosition, limit, target);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        synchronized (this) {
+            generations.incrementAndGet(stripe(event.date()));
+            if (event.previousDate() != null) {
+                generations.incrementAndGet(stripe(event.previousDate()));
+            }
+        }
+        switch (event.change()) {
+            case CREATED, UPDATED -> {
+                if (event.previousDate() != null && !event.previousDate().equals(event.date())) {
+                    apply(event.previousDate(), day -> day.remove(event.slotId()));
+                }
+                apply(event.date(), day -> {
+                    day.remove(event.slotId());
+                    day.put(event.serviceId(), event.slotId(), event.startTime(), event.endTime(), !event.booked());
+                });
+            }
+            case DELETED -> apply(event.date(), day -> day.remove(event.slotId()));
+            case BOOKED -> apply(event.date(), day -> day.setFree(event.serviceId(), event.startTime(), false));
+            case FREED -> apply(event.date(), day -> day.setFree(event.serviceId(), event.startTime(), true));
+        }
+    }
+
+    private void apply(LocalDate date, Consumer<Day> change) {
+        Day day = days.get(date);
+        if (day != null) {
+            synchronized (day) {
+                if (day.onGrid) {
+                    change.accept(day);
+                }
+            }
+        }
+    }
+
+    private static int stripe(LocalDate date) {
+        return Math.floorMod(date.hashCode(), GENERATION_STRIPES);
+    }
+
+    private int collect(LocalDate date, Long serviceId, ServiceDay serviceDay, int firstPosition, int limit,
+                        List<AvailableSlotView> target) {
+        int added = 0;
+        long[] free = serviceDay.free;
+        for (int word = firstPosition >>> 6; word < free.length && added < limit; word++) {
+            long bits = free[word];
+            if (word == firstPosition >>> 6) {
+                bits &= -1L << (firstPosition & 63);
+            }
+            while (bits != 0 && added < limit) {
+                int position = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                LocalTime start = LocalTime.ofSecondOfDay((long) position * gridSeconds);
+                target.add(new AvailableSlotView(serviceDay.ids[position], date, start, start.plusSeconds(gridSeconds), serviceId));
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private final class Day {
+
+        private final Map<Long, ServiceDay> services = new HashMap<>();
+        private final long loadedAt;
+        private boolean onGrid = true;
+
+        Day(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        void put(Long serviceId, Long id, LocalTime start, LocalTime end, boolean free) {
+            int startSeconds = start.toSecondOfDay();
+            if (startSeconds % gridSeconds != 0 || end.toSecondOfDay() - startSeconds != gridSeconds) {
+                offGrid();
+                return;
+            }
+            ServiceDay serviceDay = services.computeIfAbsent(serviceId, key -> new ServiceDay(positions));
+            int position = startSeconds / gridSeconds;
+            if (serviceDay.ids[position] != 0 && serviceDay.ids[position] != id) {
+                offGrid();
+                return;
+            }
+            serviceDay.ids[position] = id;
+            serviceDay.setFree(position, free);
+        }
+
+        void setFree(Long serviceId, LocalTime start, boolean free) {
+            ServiceDay serviceDay = services.get(serviceId);
+            if (serviceDay != null && start.toSecondOfDay() % gridSeconds == 0) {
+                serviceDay.setFree(start.toSecondOfDay() / gridSeconds, free);
+            }
+        }
+
+        void remove(Long id) {
+            for (ServiceDay serviceDay : services.values()) {
+                for (int position = 0; position < serviceDay.ids.length; position++) {
+                    if (serviceDay.ids[position] == id) {
+                        serviceDay.ids[position] = 0;
+                        serviceDay.setFree(position, false);
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void offGrid() {
+            onGrid = false;
+            services.clear();
+        }
+    }
+
+    private static final class ServiceDay {
+
+        private final long[] free;
+        private final long[] ids;
+
+        ServiceDay(int positions) {
+            this.free = new long[(positions + 63) >>> 6];
+            this.ids = new long[positions];
+        }
+
+        void setFree(int position, boolean isFree) {
+            if (isFree) {
+                free[position >>> 6] |= 1L << (position & 63);
+            } else {
+                free[position >>> 6] &= ~(1L << (position & 63));
+            }
+        }
+    }
+}
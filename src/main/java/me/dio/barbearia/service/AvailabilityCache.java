@@ -0,0 +1,167 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.event.SlotChangedEvent;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache de leitura dos horários livres por data, com tamanho máximo (LRU) e expiração por TTL.
+ * <p>
+ * As entradas de uma data são invalidadas depois do commit de qualquer alteração em um horário
+ * daquela data. Para que uma leitura iniciada antes do commit não repovoe o cache com dados
+ * antigos, cada data pertence a uma "faixa" com um contador de invalidações: o resultado só é
+ * guardado se o contador não mudou durante a consulta.
+ * <p>
+ * O cache guarda cópias dos horários, desligadas do contexto de persistência que os carregou, e
+ * cada leitura recebe cópias novas: quem chama pode alterar a lista e os objetos recebidos sem
+ * afetar as outras leituras.
+ */
+@Component
+public class AvailabilityCache {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final boolean enabled;
+    private final int maxDates;
+    private final long ttlNanos;
+
+    private final Map<LocalDate, Entry> entries;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AvailabilityCache(@Value("${barbearia.availability-cache.enabled:true}") boolean enabled,
+                             @Value("${barbearia.availability-cache.max-dates:366}") int maxDates,
+                             @Value("${barbearia.availability-cache.ttl:30s}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxDates = maxDates;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, Entry> eldest) {
+                if (size() > AvailabilityCache.this.maxDates) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public List<AvailableTime> get(LocalDate date, Function<LocalDate, List<AvailableTime>> loader) {
+        if (!enabled) {
+            return loader.apply(date);
+        }
+
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(date);
+            if (entry != null) {
+                if (now - entry.loadedAt() < ttlNanos) {
+                    hits.incrementAndGet();
+                    return copyOf(entry.slots());
+                }
+                entries.remove(date);
+                evictions.incrementAndGet();
+            }
+        }
+
+        misses.incrementAndGet();
+        int stripe = stripe(date);
+        long generation = generations.get(stripe);
+        List<AvailableTime> slots = copyOf(loader.apply(date));
+
+        synchronized (entries) {
+            if (generations.get(stripe) == generation) {
+                entries.put(date, new Entry(slots, now));
+            }
+        }
+        return copyOf(slots);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        invalidate(event.date());
+        if (event.previousDate() != null && !event.previousDate().equals(event.date())) {
+            invalidate(event.previousDate());
+        }
+    }
+
+    public void invalidate(LocalDate date) {
+        generations.incrementAndGet(stripe(date));
+        synchronized (entries) {
+            if (entries.remove(date) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(size, hits.get(), misses.get(), evictions.get(), invalidations.get());
+    }
+
+    private static List<AvailableTime> copyOf(List<AvailableTime> slots) {
+        List<AvailableTime> copies = new ArrayList<>(slots.size());
+        for (AvailableTime slot : slots) {
+            copies.add(copyOf(slot));
+        }
+        return copies;
+    }
+
+    private static AvailableTime copyOf(AvailableTime slot) {
+        ServiceBarber serviceBarber = new ServiceBarber();
+        serviceBarber.setId(slot.getServiceBarber().getId());
+        serviceBarber.setType(slot.getServiceBarber().getType());
+        serviceBarber.setPrice(slot.getServiceBarber().getPrice());
+
+        AvailableTime copy = new AvailableTime();
+        copy.setId(slot.getId());
+        copy.setDate(slot.getDate());
+        copy.setStartTime(slot.getStartTime());
+        copy.setEndTime(slot.getEndTime());
+        copy.setBooked(slot.isBooked());
+        copy.setServiceBarber(serviceBarber);
+        copy.setVersion(slot.getVersion());
+        return copy;
+    }
+
+    private static int stripe(LocalDate date) {
+        return Math.floorMod(date.hashCode(), GENERATION_STRIPES);
+    }
+
+    private record Entry(List<AvailableTime> slots, long loadedAt) {
+    }
+
+    public record CacheStats(int size, long hits, long misses, long evictions, long invalidations) {
+    }
+}
@@ -0,0 +1,146 @@
+package me.dio.barbearia.service;
+
+import jakarta.persistence.EntityManager;
+import me.dio.barbearia.domain.event.SlotChange;
+import me.dio.barbearia.domain.event.SlotChangedEvent;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.dto.ScheduleResult;
+import me.dio.barbearia.dto.ScheduleTemplate;
+import me.dio.barbearia.util.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expande um modelo de agenda (dias de funcionamento, horário de abertura e fechamento, duração e
+ * serviços) em horários disponíveis, gravando-os em lotes JDBC. Horários que ultrapassariam a
+ * capacidade (da barbearia inteira, por padrão) somados aos já existentes e aos gerados antes na
+ * mesma agenda são ignorados: com um barbeiro, só o primeiro serviço de cada horário é criado. A
+ * verificação é feita no {@link SlotIntervalIndex} depois de carregar o intervalo de datas com uma
+ * única consulta.
+ */
+@Service
+public class AvailableTimeScheduleService {
+
+    private static final int MAX_SCHEDULE_DAYS = 366;
+
+    private final AvailableTimeRepository availableTimeRepository;
+    private final ServiceBarberService serviceBarberService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final DailyStatsService dailyStatsService;
+    private final SlotIntervalIndex slotIntervalIndex;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public AvailableTimeScheduleService(AvailableTimeRepository availableTimeRepository, ServiceBarberService serviceBarberService,
+                                        ApplicationEventPublisher eventPublisher, OutboxService outboxService,
+                                        DailyStatsService dailyStatsService, SlotIntervalIndex slotIntervalIndex,
+                                        EntityManager entityManager,
+                                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.availableTimeRepository = availableTimeRepository;
+        this.serviceBarberService = serviceBarberService;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+        this.dailyStatsService = dailyStatsService;
+        this.slotIntervalIndex = slotIntervalIndex;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public ScheduleResult create(ScheduleTemplate template) {
+        validate(template);
+
+        List<ServiceBarber> services = new ArrayList<>();
+        for (Long serviceId : new LinkedHashSet<>(template.serviceIds())) {
+            services.add(serviceBarberService.findById(serviceId));
+        }
+
+        slotIntervalIndex.preload(template.from(), template.to());
+        SlotIntervalIndex.Plan plan = slotIntervalIndex.plan();
+
+        int created = 0;
+        int skipped = 0;
+        List<AvailableTime> batch = new ArrayList<>(batchSize);
+        Map<SlotDay, Long> createdPerDay = new LinkedHashMap<>();
+
+        for (LocalDate date = template.from(); !date.isAfter(template.to()); date = date.plusDays(1)) {
+            if (!template.workingDays().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            for (LocalTime start = template.opening(); fits(start, template); start = start.plusMinutes(template.slotMinutes())) {
+                LocalTime end = start.plusMinutes(template.slotMinutes());
+                for (ServiceBarber serviceBarber : services) {
+                    if (!plan.tryAdd(SlotIntervalIndex.Position.of(date, serviceBarber.getId(), start, end))) {
+                        skipped++;
+                        continue;
+                    }
+
+                    AvailableTime availableTime = new AvailableTime();
+                    availableTime.setDate(date);
+                    availableTime.setStartTime(start);
+                    availableTime.setEndTime(end);
+                    availableTime.setServiceBarber(serviceBarber);
+                    batch.add(availableTime);
+                    createdPerDay.merge(new SlotDay(date, serviceBarber), 1L, Long::sum);
+                    created++;
+
+                    if (batch.size() >= batchSize) {
+                        flush(batch, plan);
+                    }
+                }
+            }
+        }
+        flush(batch, plan);
+        createdPerDay.forEach((slotDay, count) -> dailyStatsService.addSlots(slotDay.date(), slotDay.serviceBarber(), count));
+
+        return new ScheduleResult(created, skipped);
+    }
+
+    private void flush(List<AvailableTime> batch, SlotIntervalIndex.Plan plan) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Gravados e reservados, os horários do lote passam a ser vistos pelo índice
+        plan.clear();
+        availableTimeRepository.saveAll(batch);
+        slotIntervalIndex.reserveAll(batch);
+        outboxService.availableTimesCreated(batch);
+        entityManager.flush();
+        batch.forEach(availableTime -> eventPublisher.publishEvent(SlotChangedEvent.of(availableTime, SlotChange.CREATED)));
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+
+    private static boolean fits(LocalTime start, ScheduleTemplate template) {
+        return ChronoUnit.MINUTES.between(start, template.closing()) >= template.slotMinutes();
+    }
+
+    private static void validate(ScheduleTemplate template) {
+        if (template.from().isAfter(template.to())) {
+            throw new BusinessException("A data inicial deve ser anterior ou igual à data final.");
+        }
+        if (ChronoUnit.DAYS.between(template.from(), template.to()) >= MAX_SCHEDULE_DAYS) {
+            throw new BusinessException("A agenda não pode ultrapassar " + MAX_SCHEDULE_DAYS + " dias.");
+        }
+        if (!template.opening().isBefore(template.closing())) {
+            throw new BusinessException("O horário de abertura deve ser anterior ao horário de fechamento.");
+        }
+    }
+
+    private record SlotDay(LocalDate date, ServiceBarber serviceBarber) {
+    }
+}
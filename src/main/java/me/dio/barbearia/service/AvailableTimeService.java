@@ -1,25 +1,68 @@
 package me.dio.barbearia.service;
 
+import jakarta.persistence.EntityManager;
+import me.dio.barbearia.domain.event.SlotChange;
+import me.dio.barbearia.domain.event.SlotChangedEvent;
 import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.OutboxRecord.Operation;
 import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
 import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.dto.AvailabilityRangeResponse;
+import me.dio.barbearia.dto.AvailableSlotView;
+import me.dio.barbearia.dto.FreeWindow;
+import me.dio.barbearia.dto.KeysetPage;
 import me.dio.barbearia.util.BusinessException;
+import me.dio.barbearia.util.Pagination;
+import me.dio.barbearia.util.SlotUnavailableException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 @Service
 public class AvailableTimeService {
 
+    private static final int MAX_RANGE_DAYS = 31;
+    private static final int MAX_NEXT_SLOTS = 50;
+    private static final int MAX_SEARCH_DAYS = 366;
+
     private final AvailableTimeRepository availableTimeRepository;
     private final ServiceBarberService serviceBarberService;
+    private final AvailabilityCache availabilityCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics bookingMetrics;
+    private final OutboxService outboxService;
+    private final DailyStatsService dailyStatsService;
+    private final SlotIntervalIndex slotIntervalIndex;
+    private final AvailabilityBitmap availabilityBitmap;
+    private final EntityManager entityManager;
 
-    public AvailableTimeService(AvailableTimeRepository availableTimeRepository, ServiceBarberService serviceService) {
+    public AvailableTimeService(AvailableTimeRepository availableTimeRepository, ServiceBarberService serviceService,
+                                AvailabilityCache availabilityCache, ApplicationEventPublisher eventPublisher,
+                                BookingMetrics bookingMetrics, OutboxService outboxService, DailyStatsService dailyStatsService,
+                                SlotIntervalIndex slotIntervalIndex, AvailabilityBitmap availabilityBitmap,
+                                EntityManager entityManager) {
         this.availableTimeRepository = availableTimeRepository;
         this.serviceBarberService = serviceService;
+        this.availabilityCache = availabilityCache;
+        this.eventPublisher = eventPublisher;
+        this.bookingMetrics = bookingMetrics;
+        this.outboxService = outboxService;
+        this.dailyStatsService = dailyStatsService;
+        this.slotIntervalIndex = slotIntervalIndex;
+        this.availabilityBitmap = availabilityBitmap;
+        this.entityManager = entityManager;
     }
 
     @Transactional(readOnly = true)
@@ -27,14 +70,101 @@ public class AvailableTimeService {
         return availableTimeRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<AvailableTime> findPage(Long after, int size) {
+        return KeysetPage.of(availableTimeRepository.findByIdGreaterThan(Pagination.cursor(after), Pagination.keyset(size)), AvailableTime::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<AvailableTime> consumer) {
+        Pagination.forEach(availableTimeRepository.streamAll(), entityManager, consumer);
+    }
+
     @Transactional(readOnly = true)
     public AvailableTime findById(Long id) {
         return availableTimeRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Horário disponível não encontrado com ID: " + id));
     }
 
-    @Transactional(readOnly = true)
     public List<AvailableTime> findAvailableTimesByDate(LocalDate date) {
-        return availableTimeRepository.findByDateAndIsBookedFalse(date);
+        return availabilityCache.get(date, availableTimeRepository::findByDateAndIsBookedFalse);
+    }
+
+    @Transactional(readOnly = true)
+    public AvailabilityRangeResponse findAvailableTimesBetween(LocalDate from, LocalDate to, ServiceType type) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("A data inicial deve ser anterior ou igual à data final.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BusinessException("O intervalo consultado não pode ultrapassar " + MAX_RANGE_DAYS + " dias.");
+        }
+
+        Long serviceId = type == null ? null : serviceBarberService.findByType(type).getId();
+        List<AvailableSlotView> slots = new ArrayList<>();
+        // Datas cobertas pelo índice em memória; cada sequência de datas fora dele vira uma consulta
+        LocalDate uncoveredFrom = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!availabilityBitmap.covers(date)) {
+                uncoveredFrom = uncoveredFrom == null ? date : uncoveredFrom;
+                continue;
+            }
+            if (uncoveredFrom != null) {
+                slots.addAll(findFreeSlots(uncoveredFrom, date.minusDays(1), type));
+                uncoveredFrom = null;
+            }
+            availabilityBitmap.collectFree(date, serviceId, slots);
+        }
+        if (uncoveredFrom != null) {
+            slots.addAll(findFreeSlots(uncoveredFrom, to, type));
+        }
+        return AvailabilityRangeResponse.of(from, to, slots);
+    }
+
+    private List<AvailableSlotView> findFreeSlots(LocalDate from, LocalDate to, ServiceType type) {
+        return type == null
+                ? availableTimeRepository.findFreeSlotsBetween(from, to)
+                : availableTimeRepository.findFreeSlotsBetween(from, to, type);
+    }
+
+    /**
+     * Próximos horários livres do serviço a partir de {@code from} (ou de agora), em ordem de data e
+     * hora. As datas cobertas pelo {@link AvailabilityBitmap} são lidas dele; nas demais, cada
+     * consulta percorre o índice (serviço, livre, data, início) a partir da posição buscada e para ao
+     * juntar {@code count} horários, por mais distante que esteja o primeiro.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailableSlotView> findNextAvailable(ServiceType type, LocalDateTime from, int count) {
+        if (count < 1 || count > MAX_NEXT_SLOTS) {
+            throw new BusinessException("A quantidade de horários deve estar entre 1 e " + MAX_NEXT_SLOTS + ".");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        Long serviceId = serviceBarberService.findByType(type).getId();
+
+        List<AvailableSlotView> slots = new ArrayList<>(count);
+        LocalDate date = start.toLocalDate();
+        LocalDate until = date.plusDays(MAX_SEARCH_DAYS);
+        LocalTime time = start.toLocalTime();
+        // Datas cobertas pelo índice em memória; a primeira data fora dele segue pelo banco
+        while (slots.size() < count && !date.isAfter(until) && availabilityBitmap.covers(date)) {
+            availabilityBitmap.collectNext(date, serviceId, time, count - slots.size(), slots);
+            date = date.plusDays(1);
+            time = LocalTime.MIN;
+        }
+        if (slots.size() < count && !date.isAfter(until)) {
+            slots.addAll(availableTimeRepository.findNextFreeSlotsOnDate(serviceId, date, time, Limit.of(count - slots.size())));
+        }
+        if (slots.size() < count && date.isBefore(until)) {
+            slots.addAll(availableTimeRepository.findNextFreeSlotsAfter(serviceId, date, until, Limit.of(count - slots.size())));
+        }
+        return slots;
+    }
+
+    public List<FreeWindow> findFreeWindows(LocalDate date, ServiceType type, int minutes, LocalTime from, LocalTime to) {
+        return slotIntervalIndex.freeWindows(date, serviceBarberService.findByType(type).getId(), minutes, from, to);
+    }
+
+    public List<AvailableSlotView> findOverlaps(LocalDate date) {
+        return slotIntervalIndex.overlaps(date);
     }
 
     @Transactional
@@ -42,16 +172,16 @@ public class AvailableTimeService {
         ServiceBarber serviceBarber = serviceBarberService.findById(availableTime.getServiceBarber().getId());
         availableTime.setServiceBarber(serviceBarber);
 
-        if (availableTimeRepository.findByDateAndStartTimeAndEndTimeAndIsBookedFalse(
-                availableTime.getDate(), availableTime.getStartTime(), availableTime.getEndTime()).isPresent()) {
-            throw new BusinessException("Já existe um horário disponível idêntico e não agendado para esta data e hora.");
-        }
-
         if (availableTime.getStartTime().isAfter(availableTime.getEndTime()) || availableTime.getStartTime().equals(availableTime.getEndTime())) {
             throw new BusinessException("O horário de início deve ser anterior ao horário de término.");
         }
 
-        return availableTimeRepository.save(availableTime);
+        AvailableTime createdAvailableTime = availableTimeRepository.save(availableTime);
+        slotIntervalIndex.reserve(createdAvailableTime);
+        outboxService.availableTimeChanged(createdAvailableTime, Operation.CREATED);
+        dailyStatsService.addSlots(createdAvailableTime.getDate(), serviceBarber, 1);
+        eventPublisher.publishEvent(SlotChangedEvent.of(createdAvailableTime, SlotChange.CREATED));
+        return createdAvailableTime;
     }
 
     @Transactional
@@ -62,9 +192,12 @@ public class AvailableTimeService {
             throw new BusinessException("Não é possível alterar um horário que já foi agendado.");
         }
 
+        SlotIntervalIndex.Position previousPosition = SlotIntervalIndex.Position.of(dbAvailableTime);
+        ServiceBarber previousServiceBarber = dbAvailableTime.getServiceBarber();
         ServiceBarber serviceBarber = serviceBarberService.findById(availableTimeUpdate.getServiceBarber().getId());
         dbAvailableTime.setServiceBarber(serviceBarber);
 
+        LocalDate previousDate = dbAvailableTime.getDate();
         dbAvailableTime.setDate(availableTimeUpdate.getDate());
         dbAvailableTime.setStartTime(availableTimeUpdate.getStartTime());
         dbAvailableTime.setEndTime(availableTimeUpdate.getEndTime());
@@ -74,7 +207,77 @@ public class AvailableTimeService {
             throw new BusinessException("O horário de início deve ser anterior ao horário de término.");
         }
 
-        return availableTimeRepository.save(dbAvailableTime);
+        slotIntervalIndex.reserve(dbAvailableTime, previousPosition);
+        AvailableTime updatedAvailableTime = availableTimeRepository.save(dbAvailableTime);
+        outboxService.availableTimeChanged(updatedAvailableTime, Operation.UPDATED);
+        if (!updatedAvailableTime.getDate().equals(previousDate) || !serviceBarber.getId().equals(previousServiceBarber.getId())) {
+            dailyStatsService.addSlots(previousDate, previousServiceBarber, -1);
+            dailyStatsService.addSlots(updatedAvailableTime.getDate(), serviceBarber, 1);
+        }
+        eventPublisher.publishEvent(SlotChangedEvent.of(updatedAvailableTime, SlotChange.UPDATED, previousDate));
+        return updatedAvailableTime;
+    }
+
+    @Transactional
+    public AvailableTime book(Long id) {
+        if (availableTimeRepository.markAsBooked(id) == 0) {
+            if (!availableTimeRepository.existsById(id)) {
+                throw new NoSuchElementException("Horário disponível não encontrado com ID: " + id);
+            }
+            bookingMetrics.conflict(BookingMetrics.SLOT_ALREADY_BOOKED);
+            throw new SlotUnavailableException("O horário selecionado já está agendado.");
+        }
+        AvailableTime bookedAvailableTime = reload(findById(id), true);
+        outboxService.availableTimeChanged(bookedAvailableTime, Operation.UPDATED);
+        eventPublisher.publishEvent(SlotChangedEvent.of(bookedAvailableTime, SlotChange.BOOKED));
+        return bookedAvailableTime;
+    }
+
+    /**
+     * Horários dos IDs informados, com o serviço, em uma única consulta.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailableTime> findAllById(Collection<Long> ids) {
+        return availableTimeRepository.findAllWithServiceById(ids);
+    }
+
+    /**
+     * Reserva os horários com um único UPDATE condicional. Se algum deles já estiver agendado,
+     * nenhum é reservado: a exceção desfaz a transação.
+     */
+    @Transactional
+    public List<AvailableTime> bookAll(Collection<Long> ids) {
+        if (availableTimeRepository.markAllAsBooked(ids) != ids.size()) {
+            bookingMetrics.conflict(BookingMetrics.SLOT_ALREADY_BOOKED);
+            throw new SlotUnavailableException("Um dos horários selecionados já está agendado.");
+        }
+        List<AvailableTime> bookedAvailableTimes = availableTimeRepository.findAllWithServiceById(ids);
+        for (AvailableTime bookedAvailableTime : bookedAvailableTimes) {
+            reload(bookedAvailableTime, true);
+            outboxService.availableTimeChanged(bookedAvailableTime, Operation.UPDATED);
+            eventPublisher.publishEvent(SlotChangedEvent.of(bookedAvailableTime, SlotChange.BOOKED));
+        }
+        return bookedAvailableTimes;
+    }
+
+    @Transactional
+    public void release(Long id) {
+        if (availableTimeRepository.markAsFree(id) > 0) {
+            AvailableTime freedAvailableTime = reload(findById(id), false);
+            outboxService.availableTimeChanged(freedAvailableTime, Operation.UPDATED);
+            eventPublisher.publishEvent(SlotChangedEvent.of(freedAvailableTime, SlotChange.FREED));
+        }
+    }
+
+    /**
+     * Relê o horário alterado por UPDATE se ele já estava carregado na transação antes do UPDATE
+     * (a consulta devolve a instância existente, com a situação e a versão anteriores).
+     */
+    private AvailableTime reload(AvailableTime availableTime, boolean booked) {
+        if (availableTime.isBooked() != booked) {
+            entityManager.refresh(availableTime);
+        }
+        return availableTime;
     }
 
     @Transactional
@@ -83,6 +286,9 @@ public class AvailableTimeService {
         if (availableTime.isBooked()) {
             throw new BusinessException("Não é possível excluir um horário que já foi agendado.");
         }
-        availableTimeRepository.deleteById(id);
+        availableTimeRepository.delete(availableTime);
+        outboxService.availableTimeChanged(availableTime, Operation.DELETED);
+        dailyStatsService.addSlots(availableTime.getDate(), availableTime.getServiceBarber(), -1);
+        eventPublisher.publishEvent(SlotChangedEvent.of(availableTime, SlotChange.DELETED));
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Métricas das operações de agendamento.
+ * <p>
+ * {@code barbearia.appointments} mede create/update/delete do início do método até o fim da
+ * transação, de modo que o tempo do commit também é contado; o resultado ({@code committed} ou
+ * {@code rolled_back}) vai na tag {@code outcome}. {@code barbearia.booking.conflicts} conta as
+ * recusas de negócio por motivo.
+ */
+@Component
+public class BookingMetrics {
+
+    public static final String SLOT_CLAIMED = "slot_claimed";
+    public static final String SLOT_ALREADY_BOOKED = "slot_already_booked";
+    public static final String TIME_MISMATCH = "time_mismatch";
+    public static final String APPOINTMENT_IN_PAST = "appointment_in_past";
+
+    private final MeterRegistry meterRegistry;
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Começa a medir uma operação; a medição termina quando a transação corrente for concluída.
+     * Fora de uma transação a chamada é ignorada.
+     */
+    public void timeTransaction(String operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                String outcome = status == STATUS_COMMITTED ? "committed" : "rolled_back";
+                sample.stop(Timer.builder("barbearia.appointments")
+                        .description("Duração das operações de agendamento, incluindo o commit")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+        });
+    }
+
+    public void conflict(String reason) {
+        Counter.builder("barbearia.booking.conflicts")
+                .description("Agendamentos recusados por regra de negócio")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,21 +1,34 @@
 package me.dio.barbearia.service;
 
+import jakarta.persistence.EntityManager;
 import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.OutboxRecord.Operation;
 import me.dio.barbearia.domain.repository.ClientRepository;
+import me.dio.barbearia.dto.KeysetPage;
 import me.dio.barbearia.util.BusinessException;
+import me.dio.barbearia.util.Cpf;
+import me.dio.barbearia.util.Pagination;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class ClientService {
 
     private final ClientRepository clientRepository;
+    private final OutboxService outboxService;
+    private final CpfIndex cpfIndex;
+    private final EntityManager entityManager;
 
-    public ClientService(ClientRepository clientRepository) {
+    public ClientService(ClientRepository clientRepository, OutboxService outboxService, CpfIndex cpfIndex, EntityManager entityManager) {
         this.clientRepository = clientRepository;
+        this.outboxService = outboxService;
+        this.cpfIndex = cpfIndex;
+        this.entityManager = entityManager;
     }
 
     @Transactional(readOnly = true)
@@ -23,24 +36,52 @@ public class ClientService {
         return clientRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<Client> findPage(Long after, int size) {
+        return KeysetPage.of(clientRepository.findByIdGreaterThan(Pagination.cursor(after), Pagination.keyset(size)), Client::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Client> consumer) {
+        Pagination.forEach(clientRepository.streamAll(), entityManager, consumer);
+    }
+
     @Transactional(readOnly = true)
     public Client findById(Long id) {
         return clientRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Cliente não encontrado com ID: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public Client findByCpf(String cpf) {
+        String normalizedCpf = Cpf.normalize(cpf);
+        Optional<Long> indexedId = cpfIndex.findId(normalizedCpf);
+        Optional<Client> client = indexedId.flatMap(clientRepository::findById)
+                .filter(found -> found.getCpf().equals(normalizedCpf));
+        if (indexedId.isPresent() && client.isEmpty()) {
+            // O cliente foi removido ou mudou de CPF em outra instância
+            cpfIndex.evict(normalizedCpf, indexedId.get());
+            client = clientRepository.findIdByCpf(normalizedCpf).flatMap(clientRepository::findById);
+        }
+        return client.orElseThrow(() -> new NoSuchElementException("Cliente não encontrado com CPF: " + normalizedCpf));
+    }
+
     @Transactional
     public Client create(Client clientToCreate) {
-        if (clientRepository.findByCpf(clientToCreate.getCpf()).isPresent()) {
+        if (clientRepository.existsByCpf(clientToCreate.getCpf())) {
             throw new BusinessException("CPF já cadastrado para outro cliente.");
         }
-        return clientRepository.save(clientToCreate);
+        Client createdClient = clientRepository.save(clientToCreate);
+        outboxService.clientChanged(createdClient, Operation.CREATED);
+        cpfIndex.put(createdClient.getCpf(), createdClient.getId());
+        return createdClient;
     }
 
     @Transactional
     public Client update(Long id, Client clientToUpdate) {
         Client dbClient = clientRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Cliente não encontrado com ID: " + id));
 
-        if (!dbClient.getCpf().equals(clientToUpdate.getCpf()) && clientRepository.findByCpf(clientToUpdate.getCpf()).isPresent()) {
+        String previousCpf = dbClient.getCpf();
+        if (!previousCpf.equals(clientToUpdate.getCpf()) && clientRepository.existsByCpfAndIdNot(clientToUpdate.getCpf(), id)) {
             throw new BusinessException("CPF já cadastrado para outro cliente.");
         }
 
@@ -48,14 +89,20 @@ public class ClientService {
         dbClient.setCpf(clientToUpdate.getCpf());
         dbClient.setPhone(clientToUpdate.getPhone());
 
-        return clientRepository.save(dbClient);
+        Client updatedClient = clientRepository.save(dbClient);
+        outboxService.clientChanged(updatedClient, Operation.UPDATED);
+        if (!previousCpf.equals(updatedClient.getCpf())) {
+            cpfIndex.remove(previousCpf, id);
+            cpfIndex.put(updatedClient.getCpf(), id);
+        }
+        return updatedClient;
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!clientRepository.existsById(id)) {
-            throw new NoSuchElementException("Cliente não encontrado com ID: " + id);
-        }
-        clientRepository.deleteById(id);
+        Client dbClient = clientRepository.findById(id).orElseThrow(() -> new NoSuchElementException("Cliente não encontrado com ID: " + id));
+        clientRepository.delete(dbClient);
+        outboxService.clientChanged(dbClient, Operation.DELETED);
+        cpfIndex.remove(dbClient.getCpf(), id);
     }
 }
\ No newline at end of file
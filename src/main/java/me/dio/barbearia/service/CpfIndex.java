@@ -0,0 +1,152 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.dio.barbearia.domain.repository.ClientRepository;
+import me.dio.barbearia.dto.ClientCpf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória de CPF para ID de cliente, usado na busca por CPF para ir direto à chave
+ * primária.
+ * <p>
+ * O índice é carregado quando a aplicação termina de subir, atualizado pelo {@link ClientService}
+ * depois do commit de cada alteração e recarregado a cada {@code refresh-interval}, o que descarta
+ * CPFs removidos ou alterados por outras instâncias. Como pode estar desatualizado, o ID encontrado é
+ * sempre conferido com o cliente lido do banco, e o índice não decide se um CPF está cadastrado: a
+ * verificação de duplicados do {@link ClientService} consulta o banco. Um CPF ausente (cadastrado por
+ * outra instância ou por fora da aplicação, ou além de {@code max-entries}) é procurado no banco.
+ */
+@Component
+public class CpfIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CpfIndex.class);
+    private static final int WARM_UP_ATTEMPTS = 3;
+
+    private final ClientRepository clientRepository;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final Object lock = new Object();
+    private volatile Map<String, Long> idsByCpf = Map.of();
+    private volatile boolean ready;
+    private long generation;
+
+    public CpfIndex(ClientRepository clientRepository, MeterRegistry meterRegistry,
+                    @Value("${barbearia.cpf-index.enabled:true}") boolean enabled,
+                    @Value("${barbearia.cpf-index.max-entries:200000}") int maxEntries) {
+        this.clientRepository = clientRepository;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        Gauge.builder("barbearia.cpf.index.size", this, index -> index.idsByCpf.size())
+                .description("CPFs carregados no índice em memória")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${barbearia.cpf-index.refresh-interval:5m}",
+            initialDelayString = "${barbearia.cpf-index.refresh-interval:5m}")
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        for (int attempt = 0; attempt < WARM_UP_ATTEMPTS; attempt++) {
+            long startGeneration;
+            synchronized (lock) {
+                startGeneration = generation;
+            }
+
+            List<ClientCpf> clients = clientRepository.findCpfs(Limit.of(maxEntries));
+            Map<String, Long> loaded = new ConcurrentHashMap<>(Math.max(16, clients.size() * 2));
+            clients.forEach(client -> loaded.put(client.cpf(), client.id()));
+
+            synchronized (lock) {
+                // Uma alteração confirmada durante a carga pode não estar no resultado; carrega de novo
+                if (generation == startGeneration) {
+                    idsByCpf = loaded;
+                    ready = true;
+                    log.debug("Índice de CPF carregado com {} clientes", loaded.size());
+                    return;
+                }
+            }
+        }
+        log.warn("Índice de CPF não carregado por alterações concorrentes; as consultas seguem pelo banco");
+    }
+
+    /**
+     * ID do cliente com o CPF, pelo índice ou, se ausente, pelo banco. Um ID vindo do índice pode
+     * estar desatualizado e deve ser conferido.
+     */
+    public Optional<Long> findId(String cpf) {
+        if (ready) {
+            Long id = idsByCpf.get(cpf);
+            if (id != null) {
+                return Optional.of(id);
+            }
+        }
+        return clientRepository.findIdByCpf(cpf);
+    }
+
+    /**
+     * Descarta o CPF que o índice associa a um cliente que já não o tem.
+     */
+    public void evict(String cpf, Long id) {
+        synchronized (lock) {
+            generation++;
+            idsByCpf.remove(cpf, id);
+        }
+    }
+
+    /**
+     * Registra o CPF do cliente depois do commit da transação atual (ou imediatamente, fora de uma).
+     */
+    public void put(String cpf, Long id) {
+        afterCommit(() -> {
+            if (idsByCpf.size() < maxEntries || idsByCpf.containsKey(cpf)) {
+                idsByCpf.put(cpf, id);
+            }
+        });
+    }
+
+    public void remove(String cpf, Long id) {
+        afterCommit(() -> idsByCpf.remove(cpf, id));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        Runnable apply = () -> {
+            synchronized (lock) {
+                generation++;
+                if (ready) {
+                    change.run();
+                }
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.model.DailyServiceStats;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.domain.repository.AppointmentRepository;
+import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.domain.repository.DailyServiceStatsRepository;
+import me.dio.barbearia.dto.DailyReportResponse;
+import me.dio.barbearia.dto.DailyServiceCount;
+import me.dio.barbearia.util.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantém os totais diários por serviço ({@link DailyServiceStats}) e responde ao relatório de
+ * ocupação e faturamento a partir deles, com uma linha por dia e serviço em vez de varrer os
+ * agendamentos.
+ * <p>
+ * Os totais são incrementados na mesma transação de cada alteração, com um UPDATE relativo
+ * ({@code x = x + delta}) que não perde incrementos concorrentes. A linha de um dia/serviço é criada
+ * na primeira alteração, na mesma transação, com um MERGE; assim a alteração não precisa de uma
+ * segunda conexão do pool. O faturamento usa o preço gravado no agendamento, e a reconciliação
+ * noturna recalcula a janela configurada a partir dos dados reais, com as linhas bloqueadas para
+ * que os incrementos feitos enquanto ela conta não se percam.
+ */
+@Service
+public class DailyStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyStatsService.class);
+    private static final int MAX_REPORT_DAYS = 366;
+
+    private final DailyServiceStatsRepository dailyServiceStatsRepository;
+    private final AvailableTimeRepository availableTimeRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ArchiveService archiveService;
+    private final int reconcileDaysBack;
+    private final int reconcileDaysAhead;
+
+    public DailyStatsService(DailyServiceStatsRepository dailyServiceStatsRepository, AvailableTimeRepository availableTimeRepository,
+                             AppointmentRepository appointmentRepository, ArchiveService archiveService,
+                             @Value("${barbearia.daily-stats.reconcile-days-back:7}") int reconcileDaysBack,
+                             @Value("${barbearia.daily-stats.reconcile-days-ahead:90}") int reconcileDaysAhead) {
+        this.dailyServiceStatsRepository = dailyServiceStatsRepository;
+        this.availableTimeRepository = availableTimeRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.archiveService = archiveService;
+        this.reconcileDaysBack = reconcileDaysBack;
+        this.reconcileDaysAhead = reconcileDaysAhead;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addSlots(LocalDate date, ServiceBarber serviceBarber, long delta) {
+        if (dailyServiceStatsRepository.addSlots(date, serviceBarber.getId(), delta) == 0) {
+            dailyServiceStatsRepository.createIfAbsent(date, serviceBarber.getId());
+            dailyServiceStatsRepository.addSlots(date, serviceBarber.getId(), delta);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAppointment(LocalDate date, ServiceBarber serviceBarber, int delta, BigDecimal price) {
+        BigDecimal amount = price.multiply(BigDecimal.valueOf(delta));
+        if (dailyServiceStatsRepository.addAppointments(date, serviceBarber.getId(), delta, amount) == 0) {
+            dailyServiceStatsRepository.createIfAbsent(date, serviceBarber.getId());
+            dailyServiceStatsRepository.addAppointments(date, serviceBarber.getId(), delta, amount);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public DailyReportResponse report(LocalDate from, LocalDate to, ServiceType type) {
+        validateRange(from, to);
+        List<DailyServiceStats> stats = type == null
+                ? dailyServiceStatsRepository.findBetween(from, to)
+                : dailyServiceStatsRepository.findBetween(from, to, type);
+        return DailyReportResponse.of(from, to, stats);
+    }
+
+    @Scheduled(cron = "${barbearia.daily-stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileRecent() {
+        LocalDate today = LocalDate.now();
+        int changed = reconcile(today.minusDays(reconcileDaysBack), today.plusDays(reconcileDaysAhead));
+        log.info("Reconciliação dos totais diários: {} linhas corrigidas", changed);
+    }
+
+    /**
+     * Recalcula os totais do intervalo a partir dos horários e agendamentos existentes. Datas
+     * anteriores ao horizonte de arquivamento são ignoradas: seus totais já não podem ser
+     * recalculados e ficam como estavam.
+     *
+     * @return quantidade de linhas corrigidas, incluindo as criadas
+     */
+    @Transactional
+    public int reconcile(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        LocalDate horizon = archiveService.horizon();
+        if (from.isBefore(horizon)) {
+            from = horizon;
+        }
+        if (from.isAfter(to)) {
+            return 0;
+        }
+
+        // As linhas que faltam são criadas antes do bloqueio, para que todas entrem nele. Com as linhas
+        // bloqueadas, um incremento concorrente já gravado está no banco antes da contagem, e um que
+        // ainda não foi gravado espera e é somado depois ao total recalculado.
+        dailyServiceStatsRepository.createMissing(from, to);
+        List<DailyServiceStats> rows = dailyServiceStatsRepository.findBetweenForUpdate(from, to);
+
+        Map<StatsKey, DailyServiceCount> slots = new HashMap<>();
+        availableTimeRepository.countSlotsByDay(from, to).forEach(count -> slots.put(new StatsKey(count.date(), count.serviceId()), count));
+        Map<StatsKey, DailyServiceCount> appointments = new HashMap<>();
+        appointmentRepository.countAppointmentsByDay(from, to).forEach(count -> appointments.put(new StatsKey(count.date(), count.serviceId()), count));
+
+        int changed = 0;
+        for (DailyServiceStats dailyStats : rows) {
+            StatsKey key = new StatsKey(dailyStats.getDate(), dailyStats.getServiceBarber().getId());
+            long expectedSlots = slots.containsKey(key) ? slots.get(key).count() : 0;
+            long expectedAppointments = appointments.containsKey(key) ? appointments.get(key).count() : 0;
+            BigDecimal expectedRevenue = appointments.containsKey(key) ? appointments.get(key).amount() : BigDecimal.ZERO;
+
+            if (dailyStats.getSlots() == expectedSlots && dailyStats.getAppointments() == expectedAppointments
+                    && dailyStats.getRevenue().compareTo(expectedRevenue) == 0) {
+                continue;
+            }
+            dailyStats.setSlots(expectedSlots);
+            dailyStats.setAppointments(expectedAppointments);
+            dailyStats.setRevenue(expectedRevenue);
+            changed++;
+        }
+        return changed;
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("A data inicial deve ser anterior ou igual à data final.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REPORT_DAYS) {
+            throw new BusinessException("O intervalo consultado não pode ultrapassar " + MAX_REPORT_DAYS + " dias.");
+        }
+    }
+
+    private record StatsKey(LocalDate date, Long serviceId) {
+    }
+}
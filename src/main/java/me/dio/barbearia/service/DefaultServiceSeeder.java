@@ -0,0 +1,30 @@
+package me.dio.barbearia.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cria os serviços padrão que ainda não existem quando a aplicação termina de subir, fora do
+ * caminho da inicialização, com {@link ServiceBarberService#initializeDefaultServices()}.
+ */
+@Component
+public class DefaultServiceSeeder {
+
+    private final ServiceBarberService serviceBarberService;
+    private final boolean enabled;
+
+    public DefaultServiceSeeder(ServiceBarberService serviceBarberService,
+                                @Value("${barbearia.services.seed-defaults:true}") boolean enabled) {
+        this.serviceBarberService = serviceBarberService;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (enabled) {
+            serviceBarberService.initializeDefaultServices();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package me.dio.barbearia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.dio.barbearia.dto.OutboxMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Envia cada lote do outbox em um único POST NDJSON para {@code barbearia.outbox.http.url}. Qualquer
+ * resposta fora da faixa 2xx faz o lote ser reenviado.
+ */
+@Component
+@ConditionalOnProperty(name = "barbearia.outbox.http.enabled", havingValue = "true")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public HttpOutboxSink(ObjectMapper objectMapper, @Value("${barbearia.outbox.http.url}") URI url,
+                          @Value("${barbearia.outbox.http.timeout:10s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) throws IOException, InterruptedException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (OutboxMessage message : messages) {
+            body.write(objectMapper.writeValueAsBytes(message));
+            body.write('\n');
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("O destino " + url + " respondeu " + response.statusCode());
+        }
+    }
+}
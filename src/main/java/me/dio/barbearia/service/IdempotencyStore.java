@@ -0,0 +1,188 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.dio.barbearia.domain.model.IdempotencyRecord;
+import me.dio.barbearia.domain.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Guarda as respostas já enviadas para cada chave de idempotência, em memória, com tamanho máximo
+ * (LRU) e expiração por TTL. Uma repetição com a mesma chave recebe a resposta original sem
+ * executar a requisição novamente.
+ * <p>
+ * Com {@code barbearia.idempotency.persistence.enabled=true} as respostas também são gravadas
+ * na tabela {@code idempotency_record}, consultada apenas quando a chave não está em memória.
+ * A detecção de requisições ainda em andamento vale apenas para a instância local. Chaves em
+ * andamento nunca são descartadas pelo LRU, senão uma repetição concorrente seria executada de novo;
+ * ao passar do limite, sai a chave concluída usada há mais tempo.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final MeterRegistry meterRegistry;
+    private final int maxKeys;
+    private final Duration ttl;
+    private final boolean persistenceEnabled;
+
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository, MeterRegistry meterRegistry,
+                            @Value("${barbearia.idempotency.max-keys:10000}") int maxKeys,
+                            @Value("${barbearia.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${barbearia.idempotency.persistence.enabled:false}") boolean persistenceEnabled) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.meterRegistry = meterRegistry;
+        this.maxKeys = maxKeys;
+        this.ttl = ttl;
+        this.persistenceEnabled = persistenceEnabled;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > IdempotencyStore.this.maxKeys) {
+                    Iterator<Entry> iterator = values().iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next().response() != null) {
+                            iterator.remove();
+                            break;
+                        }
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Registra o início de uma requisição com a chave informada, ou indica por que ela não deve
+     * ser executada.
+     */
+    public Decision begin(String key, String requestHash) {
+        Decision decision = beginInMemory(key, requestHash);
+        if (decision != null) {
+            return count(decision);
+        }
+
+        Optional<StoredResponse> persisted = persistenceEnabled ? findPersisted(key) : Optional.empty();
+        synchronized (entries) {
+            decision = beginInMemory(key, requestHash);
+            if (decision == null) {
+                if (persisted.isPresent()) {
+                    entries.put(key, new Entry(persisted.get().requestHash(), persisted.get(), Instant.now()));
+                    decision = decide(persisted.get().requestHash(), persisted.get(), requestHash);
+                } else {
+                    entries.put(key, new Entry(requestHash, null, Instant.now()));
+                    decision = new Decision(Outcome.PROCEED, null);
+                }
+            }
+        }
+        return count(decision);
+    }
+
+    public void complete(String key, StoredResponse response) {
+        synchronized (entries) {
+            entries.put(key, new Entry(response.requestHash(), response, Instant.now()));
+        }
+        if (persistenceEnabled) {
+            IdempotencyRecord idempotencyRecord = new IdempotencyRecord();
+            idempotencyRecord.setKey(key);
+            idempotencyRecord.setRequestHash(response.requestHash());
+            idempotencyRecord.setStatus(response.status());
+            idempotencyRecord.setContentType(response.contentType());
+            idempotencyRecord.setLocation(response.location());
+            idempotencyRecord.setBody(response.body());
+            idempotencyRecord.setCreatedAt(Instant.now());
+            idempotencyRecordRepository.save(idempotencyRecord);
+        }
+    }
+
+    /**
+     * Libera a chave de uma requisição que não terminou com sucesso, para que possa ser repetida.
+     */
+    public void abandon(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response() == null) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${barbearia.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        Instant limit = Instant.now().minus(ttl);
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.createdAt().isBefore(limit));
+        }
+        if (persistenceEnabled) {
+            idempotencyRecordRepository.deleteCreatedBefore(limit);
+        }
+    }
+
+    private Decision beginInMemory(String key, String requestHash) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.createdAt().isBefore(Instant.now().minus(ttl))) {
+                entries.remove(key);
+                return null;
+            }
+            return decide(entry.requestHash(), entry.response(), requestHash);
+        }
+    }
+
+    private Optional<StoredResponse> findPersisted(String key) {
+        Instant limit = Instant.now().minus(ttl);
+        return idempotencyRecordRepository.findById(key)
+                .filter(idempotencyRecord -> idempotencyRecord.getCreatedAt().isAfter(limit))
+                .map(idempotencyRecord -> new StoredResponse(idempotencyRecord.getRequestHash(), idempotencyRecord.getStatus(),
+                        idempotencyRecord.getContentType(), idempotencyRecord.getLocation(), idempotencyRecord.getBody()));
+    }
+
+    private static Decision decide(String storedHash, StoredResponse response, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            return new Decision(Outcome.MISMATCH, null);
+        }
+        if (response == null) {
+            return new Decision(Outcome.IN_PROGRESS, null);
+        }
+        return new Decision(Outcome.REPLAY, response);
+    }
+
+    private Decision count(Decision decision) {
+        Counter.builder("barbearia.idempotency.requests")
+                .description("Requisições com Idempotency-Key, por resultado")
+                .tag("outcome", decision.outcome().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        return decision;
+    }
+
+    public enum Outcome {
+        PROCEED,
+        REPLAY,
+        IN_PROGRESS,
+        MISMATCH
+    }
+
+    public record Decision(Outcome outcome, StoredResponse response) {
+    }
+
+    public record StoredResponse(String requestHash, int status, String contentType, String location, byte[] body) {
+    }
+
+    private record Entry(String requestHash, StoredResponse response, Instant createdAt) {
+    }
+}
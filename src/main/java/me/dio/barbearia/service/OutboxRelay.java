@@ -0,0 +1,130 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.dio.barbearia.domain.model.OutboxCursor;
+import me.dio.barbearia.domain.model.OutboxRecord;
+import me.dio.barbearia.domain.repository.OutboxCursorRepository;
+import me.dio.barbearia.domain.repository.OutboxRecordRepository;
+import me.dio.barbearia.dto.OutboxMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Numera os registros do outbox já confirmados e os entrega a cada {@link OutboxSink} configurado,
+ * em lotes e em ordem de número de sequência, guardando para cada destino o último número entregue.
+ * Um destino com falha não
+ * atrasa os demais: seu cursor fica parado e o lote é repetido na próxima rodada.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final List<OutboxSink> sinks;
+    private final OutboxService outboxService;
+    private final OutboxRecordRepository outboxRecordRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+
+    public OutboxRelay(List<OutboxSink> sinks, OutboxService outboxService, OutboxRecordRepository outboxRecordRepository,
+                       OutboxCursorRepository outboxCursorRepository, MeterRegistry meterRegistry,
+                       @Value("${barbearia.outbox.batch-size:200}") int batchSize,
+                       @Value("${barbearia.outbox.max-batches-per-run:50}") int maxBatchesPerRun,
+                       @Value("${barbearia.outbox.retention:7d}") Duration retention) {
+        this.sinks = sinks;
+        this.outboxService = outboxService;
+        this.outboxRecordRepository = outboxRecordRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${barbearia.outbox.relay-interval:1s}")
+    public void relay() {
+        sequence();
+        for (OutboxSink sink : sinks) {
+            relay(sink);
+        }
+    }
+
+    /**
+     * Remove os registros mais antigos que a retenção e já entregues a todos os destinos.
+     */
+    @Scheduled(fixedDelayString = "${barbearia.outbox.purge-interval:1h}")
+    public void purge() {
+        long deliveredToAll = Long.MAX_VALUE;
+        for (OutboxSink sink : sinks) {
+            deliveredToAll = Math.min(deliveredToAll, cursor(sink));
+        }
+        int deleted = outboxRecordRepository.deleteDelivered(deliveredToAll, Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("{} registros antigos removidos do outbox", deleted);
+        }
+    }
+
+    private void sequence() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (outboxService.sequence(batchSize) < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void relay(OutboxSink sink) {
+        long cursor = cursor(sink);
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Slice<OutboxRecord> records = outboxService.findSequenced(cursor, batchSize);
+            if (records.isEmpty()) {
+                return;
+            }
+
+            List<OutboxMessage> messages = records.map(OutboxMessage::of).getContent();
+            try {
+                sink.deliver(messages);
+            } catch (Exception e) {
+                counter("barbearia.outbox.failures", sink).increment();
+                log.warn("Falha ao entregar {} registros do outbox ao destino {}; nova tentativa na próxima rodada",
+                        messages.size(), sink.name(), e);
+                return;
+            }
+
+            cursor = messages.get(messages.size() - 1).sequenceNumber();
+            outboxCursorRepository.advance(sink.name(), cursor, Instant.now());
+            counter("barbearia.outbox.delivered", sink).increment(messages.size());
+
+            if (!records.hasNext()) {
+                return;
+            }
+        }
+    }
+
+    private long cursor(OutboxSink sink) {
+        return outboxCursorRepository.findById(sink.name())
+                .orElseGet(() -> {
+                    OutboxCursor outboxCursor = new OutboxCursor();
+                    outboxCursor.setSink(sink.name());
+                    outboxCursor.setLastSequenceNumber(0L);
+                    outboxCursor.setUpdatedAt(Instant.now());
+                    return outboxCursorRepository.save(outboxCursor);
+                })
+                .getLastSequenceNumber();
+    }
+
+    private Counter counter(String name, OutboxSink sink) {
+        return Counter.builder(name).tag("sink", sink.name()).register(meterRegistry);
+    }
+}
@@ -0,0 +1,142 @@
+package me.dio.barbearia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.OutboxRecord;
+import me.dio.barbearia.domain.model.OutboxRecord.AggregateType;
+import me.dio.barbearia.domain.model.OutboxRecord.Operation;
+import me.dio.barbearia.domain.model.OutboxSequence;
+import me.dio.barbearia.domain.repository.OutboxRecordRepository;
+import me.dio.barbearia.domain.repository.OutboxSequenceRepository;
+import me.dio.barbearia.dto.KeysetPage;
+import me.dio.barbearia.dto.OutboxMessage;
+import me.dio.barbearia.util.Pagination;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Grava no outbox um registro compacto de cada alteração de agendamento, cliente ou horário. A
+ * gravação exige uma transação em andamento, de modo que o registro só existe se a alteração for
+ * confirmada.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxRecordRepository outboxRecordRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxRecordRepository outboxRecordRepository, OutboxSequenceRepository outboxSequenceRepository,
+                         ObjectMapper objectMapper) {
+        this.outboxRecordRepository = outboxRecordRepository;
+        this.outboxSequenceRepository = outboxSequenceRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appointmentChanged(Appointment appointment, Operation operation) {
+        outboxRecordRepository.save(record(AggregateType.APPOINTMENT, appointment.getId(), operation, new AppointmentChange(
+                appointment.getId(), appointment.getDateTime(), appointment.getClient().getId(),
+                appointment.getServiceBarber().getId(), appointment.getAvailableTime().getId())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void clientChanged(Client client, Operation operation) {
+        outboxRecordRepository.save(record(AggregateType.CLIENT, client.getId(), operation,
+                new ClientChange(client.getId(), client.getName(), client.getPhone())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void availableTimeChanged(AvailableTime availableTime, Operation operation) {
+        outboxRecordRepository.save(availableTimeRecord(availableTime, operation));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void availableTimesCreated(List<AvailableTime> availableTimes) {
+        outboxRecordRepository.saveAll(availableTimes.stream()
+                .map(availableTime -> availableTimeRecord(availableTime, Operation.CREATED))
+                .toList());
+    }
+
+    /**
+     * Numera, em ordem de {@code id}, até {@code limit} registros já confirmados que ainda não têm
+     * número de sequência. A linha de {@link OutboxSequence} fica bloqueada até o commit, então os
+     * números ficam visíveis sempre em ordem crescente: um registro cuja transação fez commit tarde
+     * recebe um número maior que o dos já entregues, em vez de ficar atrás do cursor.
+     *
+     * @return quantos registros foram numerados
+     */
+    @Transactional
+    public int sequence(int limit) {
+        OutboxSequence sequence = outboxSequenceRepository.findForUpdate(OutboxSequence.OUTBOX)
+                .orElseGet(() -> {
+                    OutboxSequence outboxSequence = new OutboxSequence();
+                    outboxSequence.setName(OutboxSequence.OUTBOX);
+                    outboxSequence.setLastSequenceNumber(0L);
+                    return outboxSequenceRepository.saveAndFlush(outboxSequence);
+                });
+        List<OutboxRecord> records = outboxRecordRepository.findBySequenceNumberIsNullOrderById(Limit.of(limit));
+        long sequenceNumber = sequence.getLastSequenceNumber();
+        for (OutboxRecord outboxRecord : records) {
+            outboxRecord.setSequenceNumber(++sequenceNumber);
+        }
+        sequence.setLastSequenceNumber(sequenceNumber);
+        return records.size();
+    }
+
+    /**
+     * Lê o log de alterações a partir de um cursor (número de sequência), para consumidores que
+     * preferem buscar as alterações em vez de recebê-las. Só são devolvidos registros já numerados.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<OutboxMessage> findChanges(Long after, int size) {
+        return KeysetPage.of(findSequenced(Pagination.cursor(after), size).map(OutboxMessage::of), OutboxMessage::sequenceNumber);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<OutboxRecord> findSequenced(long after, int size) {
+        return outboxRecordRepository.findBySequenceNumberGreaterThanOrderBySequenceNumber(after, Pagination.keyset(size));
+    }
+
+    private OutboxRecord availableTimeRecord(AvailableTime availableTime, Operation operation) {
+        return record(AggregateType.AVAILABLE_TIME, availableTime.getId(), operation, new AvailableTimeChange(
+                availableTime.getId(), availableTime.getDate(), availableTime.getStartTime(), availableTime.getEndTime(),
+                availableTime.getServiceBarber().getId(), availableTime.isBooked()));
+    }
+
+    private OutboxRecord record(AggregateType aggregateType, Long aggregateId, Operation operation, Object payload) {
+        OutboxRecord outboxRecord = new OutboxRecord();
+        outboxRecord.setAggregateType(aggregateType);
+        outboxRecord.setAggregateId(aggregateId);
+        outboxRecord.setOperation(operation);
+        outboxRecord.setCreatedAt(Instant.now());
+        try {
+            outboxRecord.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a alteração para o outbox", e);
+        }
+        return outboxRecord;
+    }
+
+    public record AppointmentChange(Long id, LocalDateTime dateTime, Long clientId, Long serviceId, Long availableTimeId) {
+    }
+
+    public record ClientChange(Long id, String name, String phone) {
+    }
+
+    public record AvailableTimeChange(Long id, LocalDate date, LocalTime startTime, LocalTime endTime, Long serviceId,
+                                      boolean booked) {
+    }
+}
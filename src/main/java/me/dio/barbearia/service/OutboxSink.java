@@ -0,0 +1,24 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.dto.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Destino dos registros do outbox. A entrega é "pelo menos uma vez": um lote pode ser reenviado se
+ * a aplicação parar entre a entrega e o avanço do cursor, então o destino deve tolerar registros
+ * repetidos (o {@code id} identifica cada um).
+ */
+public interface OutboxSink {
+
+    /**
+     * Nome do destino, usado como chave do seu cursor.
+     */
+    String name();
+
+    /**
+     * Entrega o lote, em ordem de {@code sequenceNumber}. Deve lançar exceção se a entrega não puder ser
+     * confirmada; nesse caso o mesmo lote é reenviado na próxima rodada.
+     */
+    void deliver(List<OutboxMessage> messages) throws Exception;
+}
@@ -4,16 +4,20 @@ import me.dio.barbearia.domain.model.ServiceBarber;
 import me.dio.barbearia.domain.model.ServiceType;
 import me.dio.barbearia.domain.repository.ServiceBarberRepository;
 import me.dio.barbearia.util.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 
 @Service
 public class ServiceBarberService {
 
+    private static final Logger log = LoggerFactory.getLogger(ServiceBarberService.class);
+
     private final ServiceBarberRepository serviceBarberRepository;
 
     public ServiceBarberService(ServiceBarberRepository serviceRepository) {
@@ -65,15 +69,22 @@ public class ServiceBarberService {
         serviceBarberRepository.deleteById(id);
     }
 
-
-    @Transactional
+    /**
+     * Cria os serviços padrão ({@link ServiceType}) que ainda não existem; chamado na subida da
+     * aplicação pelo {@link DefaultServiceSeeder} e pelo endpoint de inicialização. Sem transação
+     * externa, cada tipo é gravado na sua própria: se outra instância criar o mesmo tipo ao mesmo
+     * tempo, a restrição única da coluna recusa a cópia e o tipo é dado como criado.
+     */
     public void initializeDefaultServices() {
-        Arrays.stream(ServiceType.values()).forEach(type -> {
-            if (serviceBarberRepository.findByType(type).isEmpty()) {
-                ServiceBarber newService = new ServiceBarber(type);
-                serviceBarberRepository.save(newService);
-                System.out.println("Serviço padrão criado: " + type.getDescription());
+        for (ServiceType type : ServiceType.values()) {
+            try {
+                if (serviceBarberRepository.findByType(type).isEmpty()) {
+                    serviceBarberRepository.save(new ServiceBarber(type));
+                    log.info("Serviço padrão criado: {}", type.getDescription());
+                }
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Serviço padrão {} criado por outra instância", type.getDescription());
             }
-        });
+        }
     }
 }
\ No newline at end of file
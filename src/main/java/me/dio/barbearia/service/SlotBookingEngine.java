@@ -0,0 +1,49 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.util.SlotUnavailableException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabela em memória dos horários disponíveis que estão sendo reservados neste momento.
+ * <p>
+ * Um horário só pode ser reivindicado por uma transação por vez: a reivindicação é atômica
+ * (CAS) e acontece antes de qualquer acesso ao banco, de modo que pedidos concorrentes para o
+ * mesmo horário são rejeitados imediatamente. A reivindicação é liberada quando a transação
+ * termina, com commit ou rollback; a partir daí o banco volta a ser a fonte de verdade do
+ * campo {@code isBooked}.
+ */
+@Component
+public class SlotBookingEngine {
+
+    private final Set<Long> claimedSlots = ConcurrentHashMap.newKeySet();
+    private final BookingMetrics bookingMetrics;
+
+    public SlotBookingEngine(BookingMetrics bookingMetrics) {
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    public void claim(Long availableTimeId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("A reserva de horários exige uma transação ativa.");
+        }
+        if (!claimedSlots.add(availableTimeId)) {
+            bookingMetrics.conflict(BookingMetrics.SLOT_CLAIMED);
+            throw new SlotUnavailableException("O horário selecionado já está sendo agendado por outro cliente.");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                claimedSlots.remove(availableTimeId);
+            }
+        });
+    }
+
+    public boolean isClaimed(Long availableTimeId) {
+        return claimedSlots.contains(availableTimeId);
+    }
+}
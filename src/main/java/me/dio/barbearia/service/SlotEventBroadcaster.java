@@ -0,0 +1,188 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import me.dio.barbearia.domain.event.SlotChangedEvent;
+import me.dio.barbearia.domain.model.ServiceType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia por Server-Sent Events as alterações de horários de uma data, depois do commit.
+ * <p>
+ * A thread que publica o evento apenas coloca a mensagem na fila limitada de cada inscrito da
+ * data; o envio pela rede é feito por uma thread virtual por inscrito, só enquanto houver
+ * mensagens pendentes. Um inscrito cuja fila enche (cliente lento ou conexão parada) é
+ * desconectado e deve reconectar e recarregar o calendário.
+ */
+@Component
+public class SlotEventBroadcaster {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final ServiceBarberService serviceBarberService;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final Duration subscriptionTimeout;
+
+    private final Map<LocalDate, Set<Subscriber>> subscribersByDate = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter droppedSubscribers;
+
+    public SlotEventBroadcaster(ServiceBarberService serviceBarberService, MeterRegistry meterRegistry,
+                                @Value("${barbearia.slot-events.max-subscribers:10000}") int maxSubscribers,
+                                @Value("${barbearia.slot-events.queue-capacity:256}") int queueCapacity,
+                                @Value("${barbearia.slot-events.timeout:30m}") Duration subscriptionTimeout) {
+        this.serviceBarberService = serviceBarberService;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.subscriptionTimeout = subscriptionTimeout;
+        Gauge.builder("barbearia.slot.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Inscritos conectados ao feed de horários")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("barbearia.slot.events.dropped")
+                .description("Inscritos desconectados por não acompanharem o volume de eventos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inscreve um cliente nas alterações dos horários da data, opcionalmente de um único serviço.
+     *
+     * @return o emitter da conexão, ou vazio se o limite de inscritos foi atingido
+     */
+    public Optional<SseEmitter> subscribe(LocalDate date, ServiceType type) {
+        Long serviceId = type == null ? null : serviceBarberService.findByType(type).getId();
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(subscriptionTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(date, serviceId, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        subscribersByDate.compute(date, (key, subscribers) -> {
+            Set<Subscriber> dateSubscribers = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            dateSubscribers.add(subscriber);
+            return dateSubscribers;
+        });
+        // Envia os cabeçalhos da resposta imediatamente, sem esperar o primeiro evento
+        enqueue(subscriber, HEARTBEAT);
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        publish(event.date(), event);
+        if (event.previousDate() != null && !event.previousDate().equals(event.date())) {
+            publish(event.previousDate(), event);
+        }
+    }
+
+    /**
+     * Mantém as conexões abertas através de proxies e detecta clientes que já desconectaram.
+     */
+    @Scheduled(fixedDelayString = "${barbearia.slot-events.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        subscribersByDate.values().forEach(subscribers -> subscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT)));
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribersByDate.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter().complete()));
+        senders.shutdownNow();
+    }
+
+    private void publish(LocalDate date, SlotChangedEvent event) {
+        Set<Subscriber> subscribers = subscribersByDate.get(date);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.serviceId() == null || subscriber.serviceId().equals(event.serviceId())) {
+                enqueue(subscriber, event);
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Object message) {
+        if (!subscriber.queue().offer(message)) {
+            droppedSubscribers.increment();
+            unsubscribe(subscriber);
+            subscriber.emitter().complete();
+            return;
+        }
+        if (subscriber.sending().compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Object message;
+            while ((message = subscriber.queue().poll()) != null) {
+                try {
+                    if (message == HEARTBEAT) {
+                        subscriber.emitter().send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        SlotChangedEvent event = (SlotChangedEvent) message;
+                        subscriber.emitter().send(SseEmitter.event()
+                                .name(event.change().name().toLowerCase())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(subscriber);
+                    return;
+                }
+            }
+            subscriber.sending().set(false);
+            // Uma mensagem pode ter chegado entre o último poll e a liberação da flag
+        } while (!subscriber.queue().isEmpty() && subscriber.sending().compareAndSet(false, true));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.active().compareAndSet(true, false)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscriber.queue().clear();
+        subscribersByDate.computeIfPresent(subscriber.date(), (date, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private record Subscriber(LocalDate date, Long serviceId, SseEmitter emitter, BlockingQueue<Object> queue,
+                              AtomicBoolean sending, AtomicBoolean active) {
+
+        Subscriber(LocalDate date, Long serviceId, SseEmitter emitter, BlockingQueue<Object> queue) {
+            this(date, serviceId, emitter, queue, new AtomicBoolean(), new AtomicBoolean(true));
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.event.SlotChangedEvent;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.domain.repository.ServiceBarberRepository;
+import me.dio.barbearia.dto.AvailableSlotView;
+import me.dio.barbearia.dto.FreeWindow;
+import me.dio.barbearia.util.BusinessException;
+import me.dio.barbearia.util.IntervalSet;
+import me.dio.barbearia.util.IntervalSet.Interval;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Índice em memória dos intervalos de horários de cada data, usado para impedir horários
+ * sobrepostos e responder às janelas livres sem consultar o banco.
+ * <p>
+ * A barbearia comporta até {@code barbearia.slots.capacity} horários simultâneos (a quantidade de
+ * barbeiros), somando todos os serviços. Com {@code barbearia.slots.capacity-scope=service} a
+ * capacidade passa a valer para cada serviço separadamente, para barbearias em que cada serviço tem
+ * os seus barbeiros. As datas são carregadas sob demanda, com tamanho máximo (LRU). Um
+ * horário criado ou alterado entra no índice ainda dentro da transação, de forma que duas
+ * transações concorrentes desta instância não reservem o mesmo intervalo; se a transação for
+ * desfeita, a reserva também é. As alterações confirmadas chegam pelo {@link SlotChangedEvent}. Como
+ * no {@link AvailabilityCache}, uma data carregada enquanto outra transação fazia commit é
+ * descartada e carregada de novo.
+ * <p>
+ * O índice só recusa cedo: a garantia final é a verificação no banco feita em seguida, na mesma
+ * transação, com as linhas dos serviços bloqueadas, que também vale entre instâncias.
+ */
+@Component
+public class SlotIntervalIndex {
+
+    private static final int GENERATION_STRIPES = 64;
+    private static final int LOAD_ATTEMPTS = 3;
+    private static final Long SHOP = 0L;
+
+    private final AvailableTimeRepository availableTimeRepository;
+    private final ServiceBarberRepository serviceBarberRepository;
+    private final int capacity;
+    private final boolean perService;
+    private final int maxDates;
+
+    private final Map<LocalDate, Day> days;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public SlotIntervalIndex(AvailableTimeRepository availableTimeRepository, ServiceBarberRepository serviceBarberRepository,
+                             @Value("${barbearia.slots.capacity:1}") int capacity,
+                             @Value("${barbearia.slots.capacity-scope:shop}") CapacityScope capacityScope,
+                             @Value("${barbearia.slot-index.max-dates:366}") int maxDates) {
+        this.availableTimeRepository = availableTimeRepository;
+        this.serviceBarberRepository = serviceBarberRepository;
+        this.capacity = capacity;
+        this.perService = capacityScope == CapacityScope.SERVICE;
+        this.maxDates = maxDates;
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, Day> eldest) {
+                return size() > SlotIntervalIndex.this.maxDates;
+            }
+        };
+    }
+
+    /**
+     * Reserva o intervalo de um horário novo, recusando-o se ultrapassar a capacidade.
+     * O horário já deve ter ID (atribuído pela sequência no {@code save}).
+     */
+    public void reserve(AvailableTime availableTime) {
+        reserve(availableTime, null);
+    }
+
+    /**
+     * Move a reserva de um horário alterado da posição anterior para a nova.
+     */
+    public void reserve(AvailableTime availableTime, Position previous) {
+        Position position = Position.of(availableTime);
+        add(availableTime.getId(), position);
+        if (previous != null && !previous.date().equals(position.date())) {
+            removeFrom(previous.date(), availableTime.getId());
+        }
+        afterRollback(() -> {
+            removeFrom(position.date(), availableTime.getId());
+            if (previous != null) {
+                apply(previous.date(), day -> day.intervals(previous.serviceId()).add(availableTime.getId(), previous.start(), previous.end()));
+            }
+        });
+
+        lock(List.of(position.serviceId()));
+        List<AvailableSlotView> overlapping = perService
+                ? availableTimeRepository.findOverlapping(position.date(), position.serviceId(), availableTime.getStartTime(), availableTime.getEndTime())
+                : availableTimeRepository.findOverlapping(position.date(), availableTime.getStartTime(), availableTime.getEndTime());
+        IntervalSet stored = new IntervalSet();
+        overlapping.forEach(slot -> stored.add(slot.id(), slot.startTime().toSecondOfDay(), slot.endTime().toSecondOfDay()));
+        verify(stored, availableTime.getId(), position);
+    }
+
+    /**
+     * Reserva os horários gerados em lote, que já devem ter ID.
+     */
+    public void reserveAll(Collection<AvailableTime> availableTimes) {
+        List<Reserved> reserved = new ArrayList<>(availableTimes.size());
+        try {
+            for (AvailableTime availableTime : availableTimes) {
+                Position position = Position.of(availableTime);
+                add(availableTime.getId(), position);
+                reserved.add(new Reserved(availableTime.getId(), position.date()));
+            }
+        } finally {
+            afterRollback(() -> reserved.forEach(entry -> removeFrom(entry.date(), entry.id())));
+        }
+
+        Set<Long> serviceIds = new TreeSet<>();
+        LocalDate from = LocalDate.MAX;
+        LocalDate to = LocalDate.MIN;
+        for (AvailableTime availableTime : availableTimes) {
+            serviceIds.add(availableTime.getServiceBarber().getId());
+            from = availableTime.getDate().isBefore(from) ? availableTime.getDate() : from;
+            to = availableTime.getDate().isAfter(to) ? availableTime.getDate() : to;
+        }
+        if (serviceIds.isEmpty()) {
+            return;
+        }
+        lock(serviceIds);
+        List<AvailableSlotView> slots = perService
+                ? availableTimeRepository.findSlotsBetween(from, to, serviceIds)
+                : availableTimeRepository.findSlotsBetween(from, to);
+        Map<LocalDate, Day> stored = slots.stream()
+                .collect(Collectors.groupingBy(AvailableSlotView::date, Collectors.collectingAndThen(Collectors.toList(), this::newDay)));
+        for (AvailableTime availableTime : availableTimes) {
+            Position position = Position.of(availableTime);
+            verify(stored.computeIfAbsent(position.date(), date -> newDay(List.of())).intervals(position.serviceId()), availableTime.getId(), position);
+        }
+    }
+
+    /**
+     * Carrega com uma única consulta as datas do intervalo que ainda não estão no índice.
+     */
+    public void preload(LocalDate from, LocalDate to) {
+        TreeSet<LocalDate> dates = new TreeSet<>();
+        for (LocalDate date = from; !date.isAfter(to) && dates.size() < maxDates; date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        preload(dates);
+    }
+
+    /**
+     * Novo plano para acompanhar os horários aceitos por um gerador de agenda antes de serem gravados.
+     */
+    public Plan plan() {
+        return new Plan();
+    }
+
+    /**
+     * Janelas de pelo menos {@code minutes} minutos entre {@code from} e {@code to} em que ainda cabe
+     * um novo horário do serviço.
+     */
+    public List<FreeWindow> freeWindows(LocalDate date, Long serviceId, int minutes, LocalTime from, LocalTime to) {
+        if (minutes < 1) {
+            throw new BusinessException("A duração da janela deve ser de pelo menos 1 minuto.");
+        }
+        if (!from.isBefore(to)) {
+            throw new BusinessException("O horário inicial deve ser anterior ao horário final.");
+        }
+        Day day = day(date);
+        List<Interval> windows;
+        synchronized (day) {
+            windows = day.intervals(serviceId).freeWindows(from.toSecondOfDay(), to.toSecondOfDay(), minutes * 60, capacity);
+        }
+        return windows.stream()
+                .map(window -> new FreeWindow(date, time(window.start()), time(window.end())))
+                .toList();
+    }
+
+    /**
+     * Horários da data que ultrapassam a capacidade, para limpeza de dados antigos. Lê a data do
+     * banco, que também tem o serviço de cada horário.
+     */
+    public List<AvailableSlotView> overlaps(LocalDate date) {
+        List<AvailableSlotView> slots = availableTimeRepository.findSlotsBetween(date, date);
+        Map<Long, AvailableSlotView> byId = slots.stream().collect(Collectors.toMap(AvailableSlotView::id, slot -> slot));
+        List<AvailableSlotView> overlaps = new ArrayList<>();
+        newDay(slots).byScope.values().forEach(intervals -> intervals.conflicts(capacity)
+                .forEach(interval -> overlaps.add(byId.get(interval.id()))));
+        overlaps.sort(Comparator.comparing(AvailableSlotView::startTime).thenComparing(AvailableSlotView::id));
+        return overlaps;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        switch (event.change()) {
+            case CREATED, UPDATED -> {
+                if (event.previousDate() != null && !event.previousDate().equals(event.date())) {
+                    removeFrom(event.previousDate(), event.slotId());
+                }
+                apply(event.date(), day -> {
+                    day.remove(event.slotId());
+                    day.intervals(event.serviceId()).add(event.slotId(), event.startTime().toSecondOfDay(), event.endTime().toSecondOfDay());
+                });
+            }
+            case DELETED -> removeFrom(event.date(), event.slotId());
+            default -> {
+                // Agendar ou liberar não muda o intervalo ocupado
+            }
+        }
+    }
+
+    public void invalidate(LocalDate date) {
+        generations.incrementAndGet(stripe(date));
+        synchronized (days) {
+            days.remove(date);
+        }
+    }
+
+    /**
+     * Bloqueia as linhas dos serviços antes da verificação no banco, para que duas transações (de
+     * qualquer instância) que disputem a mesma capacidade verifiquem uma depois da outra. Com a
+     * capacidade da barbearia inteira, todos os serviços são bloqueados, sempre na ordem dos IDs.
+     */
+    private void lock(Collection<Long> serviceIds) {
+        if (perService) {
+            new TreeSet<>(serviceIds).forEach(serviceBarberRepository::findForUpdate);
+        } else {
+            serviceBarberRepository.findAllForUpdate();
+        }
+    }
+
+    /**
+     * Confere a capacidade contra os horários gravados no banco, que incluem os ainda não
+     * confirmados desta transação e os confirmados por outras instâncias.
+     */
+    private void verify(IntervalSet stored, Long id, Position position) {
+        if (!stored.fits(position.start(), position.end(), id, capacity)) {
+            throw overlap(stored.overlapping(position.start(), position.end(), id));
+        }
+    }
+
+    private void add(Long id, Position position) {
+        Day day = day(position.date());
+        synchronized (day) {
+            IntervalSet intervals = day.intervals(position.serviceId());
+            if (!intervals.fits(position.start(), position.end(), id, capacity)) {
+                throw overlap(intervals.overlapping(position.start(), position.end(), id));
+            }
+            day.remove(id);
+            intervals.add(id, position.start(), position.end());
+        }
+    }
+
+    private Day day(LocalDate date) {
+        synchronized (days) {
+            Day day = days.get(date);
+            if (day != null) {
+                return day;
+            }
+        }
+        Day loaded = null;
+        for (int attempt = 0; attempt < LOAD_ATTEMPTS; attempt++) {
+            long generation = generations.get(stripe(date));
+            loaded = newDay(availableTimeRepository.findSlotsBetween(date, date));
+            synchronized (days) {
+                Day day = days.get(date);
+                if (day != null) {
+                    return day;
+                }
+                if (generations.get(stripe(date)) == generation) {
+                    days.put(date, loaded);
+                    return loaded;
+                }
+            }
+        }
+        // Data com alterações contínuas: usa a carga sem guardá-la
+        return loaded;
+    }
+
+    private void preload(TreeSet<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        Map<LocalDate, Long> generationsByDate = new HashMap<>();
+        synchronized (days) {
+            dates.removeIf(days::containsKey);
+        }
+        if (dates.isEmpty()) {
+            return;
+        }
+        dates.forEach(date -> generationsByDate.put(date, generations.get(stripe(date))));
+        Map<LocalDate, List<AvailableSlotView>> slotsByDate = availableTimeRepository.findSlotsBetween(dates.first(), dates.last())
+                .stream()
+                .collect(Collectors.groupingBy(AvailableSlotView::date));
+        synchronized (days) {
+            for (LocalDate date : dates) {
+                if (!days.containsKey(date) && generations.get(stripe(date)) == generationsByDate.get(date)) {
+                    days.put(date, newDay(slotsByDate.getOrDefault(date, List.of())));
+                }
+            }
+        }
+    }
+
+    private void removeFrom(LocalDate date, Long slotId) {
+        apply(date, day -> day.remove(slotId));
+    }
+
+    /**
+     * Aplica uma alteração a uma data já carregada; datas fora do índice serão lidas do banco.
+     */
+    private void apply(LocalDate date, Consumer<Day> change) {
+        generations.incrementAndGet(stripe(date));
+        Day day;
+        synchronized (days) {
+            day = days.get(date);
+        }
+        if (day != null) {
+            synchronized (day) {
+                change.accept(day);
+            }
+        }
+    }
+
+    private static void afterRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    undo.run();
+                }
+            }
+        });
+    }
+
+    private BusinessException overlap(List<Interval> overlapping) {
+        String scope = perService ? "do mesmo serviço" : "da barbearia";
+        return new BusinessException("O horário se sobrepõe a outros horários " + scope + ": " + describe(overlapping) + ".");
+    }
+
+    private static String describe(List<Interval> intervals) {
+        return intervals.stream()
+                .map(interval -> time(interval.start()) + "–" + time(interval.end()))
+                .collect(Collectors.joining(", "));
+    }
+
+    private static LocalTime time(int secondOfDay) {
+        return LocalTime.ofSecondOfDay(secondOfDay);
+    }
+
+    private static int stripe(LocalDate date) {
+        return Math.floorMod(date.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Data, serviço e intervalo de um horário, em segundos do dia.
+     */
+    public record Position(LocalDate date, Long serviceId, int start, int end) {
+
+        public static Position of(AvailableTime availableTime) {
+            return of(availableTime.getDate(), availableTime.getServiceBarber().getId(), availableTime.getStartTime(), availableTime.getEndTime());
+        }
+
+        public static Position of(LocalDate date, Long serviceId, LocalTime start, LocalTime end) {
+            return new Position(date, serviceId, start.toSecondOfDay(), end.toSecondOfDay());
+        }
+    }
+
+    /**
+     * A quem a capacidade se aplica: à barbearia inteira ou a cada serviço.
+     */
+    public enum CapacityScope {
+        SHOP,
+        SERVICE
+    }
+
+    private record Reserved(Long id, LocalDate date) {
+    }
+
+    private record PlanKey(LocalDate date, Long scope) {
+    }
+
+    /**
+     * Horários aceitos por um gerador de agenda e ainda não reservados no índice. Cada posição é
+     * conferida contra os horários do índice somados aos já aceitos no plano; depois que o lote
+     * aceito é gravado e reservado, o plano deve ser esvaziado com {@link #clear()}.
+     */
+    public final class Plan {
+
+        private final Map<PlanKey, IntervalSet> accepted = new HashMap<>();
+        private long nextId = -1;
+
+        private Plan() {
+        }
+
+        /**
+         * Aceita a posição se ela couber na capacidade.
+         */
+        public boolean tryAdd(Position position) {
+            IntervalSet planned = accepted.computeIfAbsent(new PlanKey(position.date(), scope(position.serviceId())), key -> new IntervalSet());
+            List<Interval> overlapping;
+            Day day = day(position.date());
+            synchronized (day) {
+                overlapping = new ArrayList<>(day.intervals(position.serviceId()).overlapping(position.start(), position.end(), Long.MIN_VALUE));
+            }
+            overlapping.addAll(planned.overlapping(position.start(), position.end(), Long.MIN_VALUE));
+            if (!IntervalSet.fits(overlapping, position.start(), position.end(), capacity)) {
+                return false;
+            }
+            planned.add(nextId--, position.start(), position.end());
+            return true;
+        }
+
+        public void clear() {
+            accepted.clear();
+        }
+    }
+
+    private Long scope(Long serviceId) {
+        return perService ? serviceId : SHOP;
+    }
+
+    private Day newDay(List<AvailableSlotView> slots) {
+        Day day = new Day();
+        for (AvailableSlotView slot : slots) {
+            day.intervals(slot.serviceId()).add(slot.id(), slot.startTime().toSecondOfDay(), slot.endTime().toSecondOfDay());
+        }
+        return day;
+    }
+
+    /**
+     * Intervalos de uma data, um conjunto para a barbearia ou um por serviço.
+     */
+    private final class Day {
+
+        private final Map<Long, IntervalSet> byScope = new HashMap<>();
+
+        IntervalSet intervals(Long serviceId) {
+            return byScope.computeIfAbsent(scope(serviceId), id -> new IntervalSet());
+        }
+
+        void remove(Long slotId) {
+            for (IntervalSet intervals : byScope.values()) {
+                if (intervals.remove(slotId)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package me.dio.barbearia.util;
+
+public final class Cpf {
+
+    private Cpf() {
+    }
+
+    /**
+     * Remove a pontuação do CPF ("529.982.247-25" vira "52998224725"). Feita uma única vez, na
+     * entrada do dado; daí em diante o CPF é sempre comparado e gravado só com dígitos.
+     */
+    public static String normalize(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(11);
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != '.' && c != '-' && !Character.isWhitespace(c)) {
+                // Mantém o valor original para que a validação recuse o CPF
+                return cpf;
+            }
+        }
+        return digits.toString();
+    }
+}
@@ -0,0 +1,232 @@
+package me.dio.barbearia.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conjunto de intervalos semiabertos {@code [start, end)} de um dia, em segundos, identificados por
+ * ID. Os intervalos ficam em arrays ordenados pelo início, junto com o maior término de cada prefixo;
+ * como esse maior término só cresce, os intervalos que podem sobrepor {@code [start, end)} são
+ * localizados com duas buscas binárias, em O(log n + k) para k intervalos sobrepostos.
+ * <p>
+ * Não é thread-safe.
+ */
+public final class IntervalSet {
+
+    private long[] ids = new long[8];
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int[] maxEnds = new int[8];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Inclui o intervalo, substituindo o de mesmo ID se já existir.
+     */
+    public void add(long id, int start, int end) {
+        remove(id);
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            maxEnds = Arrays.copyOf(maxEnds, capacity);
+        }
+        int index = upperBound(start);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(starts, index, starts, index + 1, size - index);
+        System.arraycopy(ends, index, ends, index + 1, size - index);
+        ids[index] = id;
+        starts[index] = start;
+        ends[index] = end;
+        size++;
+        updateMaxEnds(index);
+    }
+
+    public boolean remove(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+                System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+                size--;
+                updateMaxEnds(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Intervalos que sobrepõem {@code [start, end)}, exceto o de ID {@code exceptId}.
+     */
+    public List<Interval> overlapping(int start, int end, long exceptId) {
+        // Intervalos a partir de "to" começam depois do fim; antes de "from", todos terminam antes do início
+        int to = lowerBound(end);
+        int from = firstMaxEndAfter(start, to);
+        List<Interval> overlapping = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (ends[i] > start && ids[i] != exceptId) {
+                overlapping.add(new Interval(ids[i], starts[i], ends[i]));
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Indica se {@code [start, end)} pode ser incluído sem que, em algum instante, mais de
+     * {@code capacity} intervalos fiquem simultâneos.
+     */
+    public boolean fits(int start, int end, long exceptId, int capacity) {
+        return fits(overlapping(start, end, exceptId), start, end, capacity);
+    }
+
+    /**
+     * Como {@link #fits(int, int, long, int)}, a partir dos intervalos que sobrepõem
+     * {@code [start, end)}, que podem vir de mais de um conjunto.
+     */
+    public static boolean fits(List<Interval> overlapping, int start, int end, int capacity) {
+        if (overlapping.size() < capacity) {
+            return true;
+        }
+        return maxConcurrent(overlapping, start, end) < capacity;
+    }
+
+    /**
+     * Trechos de {@code [from, to)} com pelo menos {@code minLength} segundos em que há menos de
+     * {@code capacity} intervalos simultâneos.
+     */
+    public List<Interval> freeWindows(int from, int to, int minLength, int capacity) {
+        List<Interval> windows = new ArrayList<>();
+        int[][] events = events(overlapping(from, to, Long.MIN_VALUE), from, to);
+        int concurrent = 0;
+        int windowStart = from;
+        for (int[] event : events) {
+            int previous = concurrent;
+            concurrent += event[1];
+            if (previous < capacity && concurrent >= capacity) {
+                addWindow(windows, windowStart, event[0], minLength);
+            } else if (previous >= capacity && concurrent < capacity) {
+                windowStart = event[0];
+            }
+        }
+        if (concurrent < capacity) {
+            addWindow(windows, windowStart, to, minLength);
+        }
+        return windows;
+    }
+
+    /**
+     * Intervalos que participam de algum trecho com mais de {@code capacity} intervalos simultâneos.
+     */
+    public List<Interval> conflicts(int capacity) {
+        List<Interval> conflicts = new ArrayList<>();
+        boolean[] conflicting = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size && starts[j] < ends[i]; j++) {
+                // i e j se sobrepõem; verifica a capacidade no trecho comum
+                int start = starts[j];
+                int end = Math.min(ends[i], ends[j]);
+                if (maxConcurrent(overlapping(start, end, Long.MIN_VALUE), start, end) > capacity) {
+                    conflicting[i] = true;
+                    conflicting[j] = true;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (conflicting[i]) {
+                conflicts.add(new Interval(ids[i], starts[i], ends[i]));
+            }
+        }
+        return conflicts;
+    }
+
+    private static int maxConcurrent(List<Interval> intervals, int start, int end) {
+        int concurrent = 0;
+        int max = 0;
+        for (int[] event : events(intervals, start, end)) {
+            concurrent += event[1];
+            max = Math.max(max, concurrent);
+        }
+        return max;
+    }
+
+    /**
+     * Eventos de início (+1) e fim (-1) dos intervalos recortados a {@code [from, to)}, em ordem;
+     * no mesmo instante, os fins vêm antes dos inícios, já que os intervalos são semiabertos.
+     */
+    private static int[][] events(List<Interval> intervals, int from, int to) {
+        int[][] events = new int[intervals.size() * 2][];
+        int i = 0;
+        for (Interval interval : intervals) {
+            events[i++] = new int[]{Math.max(interval.start(), from), 1};
+            events[i++] = new int[]{Math.min(interval.end(), to), -1};
+        }
+        Arrays.sort(events, (a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        return events;
+    }
+
+    private static void addWindow(List<Interval> windows, int start, int end, int minLength) {
+        if (end - start >= minLength) {
+            windows.add(new Interval(0, start, end));
+        }
+    }
+
+    private void updateMaxEnds(int from) {
+        for (int i = from; i < size; i++) {
+            maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+    }
+
+    /** Primeiro índice com início maior ou igual a {@code value}. */
+    private int lowerBound(int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Primeiro índice com início maior que {@code value}. */
+    private int upperBound(int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Primeiro índice antes de {@code limit} cujo maior término do prefixo passa de {@code value}. */
+    private int firstMaxEndAfter(int value, int limit) {
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (maxEnds[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public record Interval(long id, int start, int end) {
+    }
+}
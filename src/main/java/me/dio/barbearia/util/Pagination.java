@@ -0,0 +1,46 @@
+package me.dio.barbearia.util;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public final class Pagination {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final int CLEAR_EVERY = 100;
+
+    private Pagination() {
+    }
+
+    public static long cursor(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    public static Pageable keyset(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("O tamanho da página deve estar entre 1 e " + MAX_PAGE_SIZE + ".");
+        }
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    /**
+     * Percorre um stream de entidades limpando o contexto de persistência periodicamente, para que a
+     * memória usada não cresça com o tamanho da tabela.
+     */
+    public static <T> void forEach(Stream<T> stream, EntityManager entityManager, Consumer<T> consumer) {
+        try (stream) {
+            int[] count = {0};
+            stream.forEach(entity -> {
+                consumer.accept(entity);
+                if (++count[0] % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+}
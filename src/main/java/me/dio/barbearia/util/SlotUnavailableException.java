@@ -0,0 +1,11 @@
+package me.dio.barbearia.util;
+
+/**
+ * O horário disponível já está agendado ou sendo agendado por outra transação. Diferente das
+ * demais regras de negócio, não depende dos dados da requisição: repetir o pedido não adianta.
+ */
+public class SlotUnavailableException extends BusinessException {
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
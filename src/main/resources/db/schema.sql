@@ -0,0 +1,127 @@
+-- Esquema usado pelo perfil prod (spring.jpa.hibernate.ddl-auto=none), no dialeto do H2.
+-- Idempotente: pode ser executado a cada subida. Ao alterar uma entidade, altere também este
+-- script; o SchemaScriptTest valida o esquema contra as entidades.
+
+create sequence if not exists appointment_seq start with 1 increment by 50;
+create sequence if not exists available_time_seq start with 1 increment by 50;
+create sequence if not exists outbox_record_seq start with 1 increment by 50;
+
+create table if not exists service_barber (
+    id bigint generated by default as identity,
+    type enum ('BARBA','CABELO','COMBO') not null unique,
+    price numeric(10,2) not null,
+    primary key (id)
+);
+
+create table if not exists client (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    cpf varchar(11) not null unique,
+    phone varchar(11) not null,
+    primary key (id)
+);
+
+create table if not exists available_time (
+    id bigint not null,
+    date date not null,
+    start_time time(6) not null,
+    end_time time(6) not null,
+    is_booked boolean not null,
+    service_id bigint not null,
+    version bigint,
+    primary key (id),
+    constraint fk_available_time_service foreign key (service_id) references service_barber
+);
+
+create table if not exists appointment (
+    id bigint not null,
+    date_time timestamp(6) not null,
+    service_id bigint not null,
+    price numeric(10,2) not null,
+    client_id bigint not null,
+    available_time_id bigint not null unique,
+    primary key (id),
+    constraint fk_appointment_service foreign key (service_id) references service_barber,
+    constraint fk_appointment_client foreign key (client_id) references client,
+    constraint fk_appointment_available_time foreign key (available_time_id) references available_time
+);
+
+create table if not exists archived_appointment (
+    id bigint not null,
+    date_time timestamp(6) not null,
+    client_id bigint not null,
+    service_id bigint not null,
+    service_type enum ('BARBA','CABELO','COMBO') not null,
+    price numeric(10,2) not null,
+    available_time_id bigint not null,
+    archived_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create table if not exists archived_available_time (
+    id bigint not null,
+    date date not null,
+    start_time time(6) not null,
+    end_time time(6) not null,
+    service_id bigint not null,
+    archived_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create table if not exists daily_service_stats (
+    id bigint generated by default as identity,
+    date date not null,
+    service_id bigint not null,
+    slots bigint not null,
+    appointments bigint not null,
+    revenue numeric(12,2) not null,
+    primary key (id),
+    constraint uk_daily_service_stats_date_service unique (date, service_id),
+    constraint fk_daily_service_stats_service foreign key (service_id) references service_barber
+);
+
+create table if not exists idempotency_record (
+    idempotency_key varchar(255) not null,
+    request_hash varchar(64) not null,
+    status integer not null,
+    content_type varchar(255),
+    location varchar(255),
+    body blob,
+    created_at timestamp(6) with time zone not null,
+    primary key (idempotency_key)
+);
+
+create table if not exists outbox_cursor (
+    sink varchar(64) not null,
+    last_sequence_number bigint not null,
+    updated_at timestamp(6) with time zone not null,
+    primary key (sink)
+);
+
+create table if not exists outbox_record (
+    id bigint not null,
+    sequence_number bigint,
+    aggregate_type enum ('APPOINTMENT','AVAILABLE_TIME','CLIENT') not null,
+    aggregate_id bigint not null,
+    operation enum ('CREATED','DELETED','UPDATED') not null,
+    payload varchar(2000) not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create table if not exists outbox_sequence (
+    name varchar(64) not null,
+    last_sequence_number bigint not null,
+    primary key (name)
+);
+
+create index if not exists idx_appointment_client on appointment (client_id);
+create index if not exists idx_appointment_date_time on appointment (date_time);
+create index if not exists idx_archived_appointment_client on archived_appointment (client_id, id);
+create index if not exists idx_archived_appointment_date_time on archived_appointment (date_time);
+create index if not exists idx_archived_available_time_date on archived_available_time (date);
+create index if not exists idx_available_time_date_booked on available_time (date, is_booked);
+create index if not exists idx_available_time_service_free_date_start on available_time (service_id, is_booked, date, start_time);
+create index if not exists idx_idempotency_record_created_at on idempotency_record (created_at);
+create index if not exists idx_outbox_record_created_at on outbox_record (created_at);
+create unique index if not exists idx_outbox_record_sequence_number on outbox_record (sequence_number);
@@ -0,0 +1,144 @@
+package me.dio.barbearia.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.dio.barbearia.domain.model.IdempotencyRecord;
+import me.dio.barbearia.domain.repository.IdempotencyRecordRepository;
+import me.dio.barbearia.service.IdempotencyStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cobre o tratamento de {@code Idempotency-Key}: repetição com a resposta guardada, 409 com a
+ * original em andamento, 422 com outro corpo, 413 com corpo grande demais, a consulta à tabela
+ * quando a chave não está em memória e o LRU, que não descarta chaves em andamento.
+ */
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"client\":{\"id\":1}}";
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final CountingController controller = new CountingController();
+
+    @Test
+    void replaysStoredResponse() throws Exception {
+        MockMvc mockMvc = mockMvc(store(false));
+
+        perform(mockMvc, "chave-1", BODY)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/appointments/1"));
+        perform(mockMvc, "chave-1", BODY)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/appointments/1"))
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(content().json(BODY));
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsRepeatWhileOriginalIsInProgress() throws Exception {
+        IdempotencyStore store = store(false);
+        // A original começou e ainda não terminou
+        assertThat(store.begin("chave-2", sha256(BODY)).outcome()).isEqualTo(IdempotencyStore.Outcome.PROCEED);
+
+        perform(mockMvc(store), "chave-2", BODY).andExpect(status().isConflict());
+        assertThat(controller.calls.get()).isZero();
+
+        store.abandon("chave-2");
+        perform(mockMvc(store), "chave-2", BODY).andExpect(status().isCreated());
+    }
+
+    @Test
+    void rejectsKeyReusedWithOtherBody() throws Exception {
+        MockMvc mockMvc = mockMvc(store(false));
+
+        perform(mockMvc, "chave-3", BODY).andExpect(status().isCreated());
+        perform(mockMvc, "chave-3", "{\"client\":{\"id\":2}}").andExpect(status().isUnprocessableEntity());
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsBodyLargerThanLimit() throws Exception {
+        MockMvc mockMvc = mockMvc(store(false));
+
+        perform(mockMvc, "chave-4", "x".repeat(64 * 1024 + 1)).andExpect(status().is(HttpStatus.PAYLOAD_TOO_LARGE.value()));
+        assertThat(controller.calls.get()).isZero();
+    }
+
+    @Test
+    void fallsBackToPersistedResponse() throws Exception {
+        perform(mockMvc(store(true)), "chave-5", BODY).andExpect(status().isCreated());
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(saved.capture());
+
+        // Outra instância (ou a mesma depois de reiniciar) não tem a chave em memória
+        when(repository.findById("chave-5")).thenReturn(Optional.of(saved.getValue()));
+        perform(mockMvc(store(true)), "chave-5", BODY)
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(content().json(BODY));
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsInProgressKeysWhenFull() {
+        IdempotencyStore store = new IdempotencyStore(repository, new SimpleMeterRegistry(), 1, Duration.ofHours(1), false);
+
+        assertThat(store.begin("em-andamento", "hash").outcome()).isEqualTo(IdempotencyStore.Outcome.PROCEED);
+        assertThat(store.begin("outra", "hash").outcome()).isEqualTo(IdempotencyStore.Outcome.PROCEED);
+        assertThat(store.begin("em-andamento", "hash").outcome()).isEqualTo(IdempotencyStore.Outcome.IN_PROGRESS);
+    }
+
+    private IdempotencyStore store(boolean persistenceEnabled) {
+        return new IdempotencyStore(repository, new SimpleMeterRegistry(), 100, Duration.ofHours(1), persistenceEnabled);
+    }
+
+    private MockMvc mockMvc(IdempotencyStore store) {
+        return MockMvcBuilders.standaloneSetup(controller).addFilters(new IdempotencyFilter(store, true)).build();
+    }
+
+    private static ResultActions perform(MockMvc mockMvc, String key, String body) throws Exception {
+        return mockMvc.perform(post("/appointments").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private static String sha256(String body) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @RestController
+    static class CountingController {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @PostMapping(value = "/appointments", produces = MediaType.APPLICATION_JSON_VALUE)
+        ResponseEntity<String> create(@RequestBody String body) {
+            return ResponseEntity.created(URI.create("/appointments/" + calls.incrementAndGet())).body(body);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package me.dio.barbearia.domain;
+
+import me.dio.barbearia.domain.model.ServiceType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sobe o perfil prod com o esquema criado por {@code db/schema.sql} e o Hibernate apenas validando
+ * as entidades contra ele; o contexto não sobe se o script e as entidades divergirem.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema_script_db",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("prod")
+class SchemaScriptTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void scriptCanRunAgainOnExistingSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(dataSource);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from service_barber", Integer.class))
+                .isEqualTo(ServiceType.values().length);
+    }
+}
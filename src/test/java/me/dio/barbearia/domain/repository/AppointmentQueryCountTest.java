@@ -0,0 +1,99 @@
+package me.dio.barbearia.domain.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import me.dio.barbearia.service.AppointmentService;
+import me.dio.barbearia.support.SlotDatasetGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que listar e detalhar agendamentos executa um número fixo de comandos SQL,
+ * independentemente de quantos clientes, serviços e horários estão envolvidos.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_count_db",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // O relay do outbox numera registros a cada rodada e entraria na contagem de comandos
+        "barbearia.outbox.relay-interval=1h",
+        // Assim como as recargas periódicas do mapa de horários e do índice de CPF
+        "barbearia.slot-bitmap.enabled=false",
+        "barbearia.cpf-index.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentQueryCountTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    private Statistics statistics;
+    private Long anyAppointmentId;
+
+    @BeforeAll
+    void generateDataset() {
+        SlotDatasetGenerator generator = new SlotDatasetGenerator(jdbcTemplate, 11L);
+        List<Long> serviceIds = generator.ensureServices();
+        List<Long> clientIds = generator.generateClients(50);
+        generator.generateSlots(LocalDate.now().plusDays(1), 10, LocalTime.of(9, 0), LocalTime.of(18, 0), 30, 0.5, serviceIds, clientIds);
+        anyAppointmentId = jdbcTemplate.queryForObject("select min(id) from appointment", Long.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void findAllUsesSingleStatement() {
+        assertThat(appointmentService.findAll()).hasSizeGreaterThan(50);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByIdUsesSingleStatement() {
+        appointmentService.findById(anyAppointmentId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findPageUsesSingleStatement() {
+        assertThat(appointmentService.findPage(null, 100).content()).hasSize(100);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void streamAllUsesSingleStatement() {
+        AtomicInteger count = new AtomicInteger();
+        appointmentService.streamAll(appointment -> count.incrementAndGet());
+        assertThat(count.get()).isGreaterThan(50);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void summariesUseSingleStatement() {
+        assertThat(appointmentService.findSummaries(null, 100).content()).hasSize(100);
+        appointmentService.findSummaryById(anyAppointmentId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,10 @@
+package me.dio.barbearia.domain.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plan_pg_db;MODE=PostgreSQL",
+        "spring.jpa.show-sql=false"
+})
+class AvailableTimeQueryPlanPostgresModeTest extends AvailableTimeQueryPlanTest {
+}
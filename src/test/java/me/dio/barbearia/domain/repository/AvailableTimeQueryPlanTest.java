@@ -0,0 +1,68 @@
+package me.dio.barbearia.domain.repository;
+
+import me.dio.barbearia.support.SlotDatasetGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que as consultas mais frequentes usam os índices declarados nas entidades. O volume pode
+ * ser aumentado com {@code -Ddataset.days=...} (72 horários por dia); a latência do calendário com
+ * massas grandes é medida pelo {@code AvailabilityQueryBenchmark} (JMH).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plan_db",
+        "spring.jpa.show-sql=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AvailableTimeQueryPlanTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final int DAYS = Integer.getInteger("dataset.days", 60);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void generateDataset() {
+        SlotDatasetGenerator generator = new SlotDatasetGenerator(jdbcTemplate, 42L);
+        List<Long> serviceIds = generator.ensureServices();
+        List<Long> clientIds = generator.generateClients(500);
+        generator.generateSlots(FIRST_DAY, DAYS, LocalTime.of(8, 0), LocalTime.of(20, 0), 30, 0.3, serviceIds, clientIds);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void freeSlotsByDateUseDateAndBookedIndex() {
+        assertThat(explain("select * from available_time a where a.date = DATE '2030-02-01' and a.is_booked = false"))
+                .containsIgnoringCase("idx_available_time_date_booked");
+    }
+
+    @Test
+    void nextFreeSlotsForServiceUseServiceFreeDateIndex() {
+        assertThat(explain("select * from available_time a where a.service_id = 1 and a.is_booked = false " +
+                "and a.date > DATE '2030-02-01' and a.date <= DATE '2031-02-01' order by a.date, a.start_time, a.id limit 5"))
+                .containsIgnoringCase("idx_available_time_service_free_date_start");
+    }
+
+    @Test
+    void appointmentLookupsUseClientAndDateTimeIndexes() {
+        assertThat(explain("select * from appointment ap where ap.client_id = 10"))
+                .containsIgnoringCase("idx_appointment_client");
+        assertThat(explain("select * from appointment ap where ap.date_time between TIMESTAMP '2030-02-01 00:00:00' and TIMESTAMP '2030-02-02 00:00:00'"))
+                .containsIgnoringCase("idx_appointment_date_time");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+}
@@ -0,0 +1,232 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.controller.AppointmentController;
+import me.dio.barbearia.controller.NdjsonStreamWriter;
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.dto.BatchBookingRequest;
+import me.dio.barbearia.dto.BatchBookingRequest.Item;
+import me.dio.barbearia.dto.BatchBookingRequest.Mode;
+import me.dio.barbearia.dto.BatchBookingResult;
+import me.dio.barbearia.dto.BatchBookingResult.Rejection;
+import me.dio.barbearia.dto.DailyReportResponse;
+import me.dio.barbearia.util.BusinessException;
+import me.dio.barbearia.util.SlotUnavailableException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cobre o agendamento em lote: no modo ALL_OR_NOTHING um horário indisponível ou com data e hora
+ * divergente desfaz o lote inteiro; no BEST_EFFORT os demais são agendados e cada recusa traz a
+ * mesma mensagem do agendamento individual. Também confere a recusa de horários repetidos, os
+ * totais diários e o outbox de cada agendamento criado, e o 201 do endpoint.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:appointment_batch_db",
+        "spring.jpa.show-sql=false",
+        "barbearia.outbox.relay-interval=1h"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentBatchTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AvailableTimeService availableTimeService;
+
+    @Autowired
+    private ServiceBarberService serviceBarberService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ServiceBarber serviceBarber;
+    private Long clientId;
+
+    @BeforeAll
+    void createClient() {
+        serviceBarber = serviceBarberService.findByType(ServiceType.BARBA);
+        jdbcTemplate.update("insert into client (name, cpf, phone) values ('Cliente lote', '39053344705', '11999999999')");
+        clientId = jdbcTemplate.queryForObject("select id from client where cpf = '39053344705'", Long.class);
+    }
+
+    @Test
+    void allOrNothingRollsBackWholeBatch() {
+        LocalDate date = LocalDate.now().plusDays(10);
+        AvailableTime first = slot(date, "09:00");
+        AvailableTime booked = slot(date, "10:00");
+        AvailableTime last = slot(date, "11:00");
+        appointmentService.create(appointment(booked, start(booked)));
+        long appointments = appointmentCount();
+
+        assertThatThrownBy(() -> appointmentService.createBatch(request(Mode.ALL_OR_NOTHING,
+                item(first), item(booked), item(last)))).isInstanceOf(SlotUnavailableException.class);
+        assertThatThrownBy(() -> appointmentService.createBatch(request(Mode.ALL_OR_NOTHING,
+                item(first), new Item(last.getId(), start(last).plusMinutes(15))))).isInstanceOf(BusinessException.class);
+
+        assertThat(availableTimeService.findById(first.getId()).isBooked()).isFalse();
+        assertThat(availableTimeService.findById(last.getId()).isBooked()).isFalse();
+        assertThat(appointmentCount()).isEqualTo(appointments);
+        assertThat(report(date).appointments()).isEqualTo(1);
+    }
+
+    @Test
+    void bestEffortBooksRemainingSlots() {
+        LocalDate date = LocalDate.now().plusDays(11);
+        AvailableTime free = slot(date, "09:00");
+        AvailableTime booked = slot(date, "10:00");
+        AvailableTime mismatched = slot(date, "11:00");
+        appointmentService.create(appointment(booked, start(booked)));
+        long missingId = mismatched.getId() + 1000;
+        LocalDateTime wrongTime = start(mismatched).plusMinutes(15);
+
+        BatchBookingResult result = appointmentService.createBatch(request(Mode.BEST_EFFORT,
+                item(free), item(booked), new Item(mismatched.getId(), wrongTime), new Item(missingId, start(free))));
+
+        assertThat(result.created()).extracting(appointment -> appointment.getAvailableTime().getId()).containsExactly(free.getId());
+        assertThat(result.rejected()).extracting(Rejection::availableTimeId).containsExactly(booked.getId(), mismatched.getId(), missingId);
+        // Cada recusa traz a mensagem que o agendamento individual do mesmo horário daria
+        assertThat(result.rejected()).extracting(Rejection::message).containsExactly(
+                singleBookingMessage(booked, start(booked)),
+                singleBookingMessage(mismatched, wrongTime),
+                singleBookingMessage(missingSlot(missingId), start(free)));
+        assertThat(availableTimeService.findById(mismatched.getId()).isBooked()).isFalse();
+    }
+
+    @Test
+    void rejectsRepeatedSlot() {
+        LocalDate date = LocalDate.now().plusDays(12);
+        AvailableTime availableTime = slot(date, "09:00");
+        long appointments = appointmentCount();
+
+        assertThatThrownBy(() -> appointmentService.createBatch(request(Mode.BEST_EFFORT, item(availableTime), item(availableTime))))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("mais de uma vez");
+        assertThat(availableTimeService.findById(availableTime.getId()).isBooked()).isFalse();
+        assertThat(appointmentCount()).isEqualTo(appointments);
+    }
+
+    @Test
+    void recordsStatsAndOutboxForEachAppointment() {
+        LocalDate date = LocalDate.now().plusDays(13);
+        LocalDate nextDate = date.plusDays(1);
+        AvailableTime first = slot(date, "09:00");
+        AvailableTime second = slot(date, "10:00");
+        AvailableTime third = slot(nextDate, "09:00");
+
+        BatchBookingResult result = appointmentService.createBatch(request(Mode.ALL_OR_NOTHING, item(first), item(second), item(third)));
+
+        assertThat(result.created()).hasSize(3);
+        assertThat(result.rejected()).isEmpty();
+        assertThat(report(date).appointments()).isEqualTo(2);
+        assertThat(report(date).revenue()).isEqualByComparingTo(serviceBarber.getPrice().multiply(BigDecimal.TWO));
+        assertThat(report(nextDate).appointments()).isEqualTo(1);
+        for (Appointment appointment : result.created()) {
+            assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_record where aggregate_type = 'APPOINTMENT' " +
+                    "and aggregate_id = ? and operation = 'CREATED'", Long.class, appointment.getId())).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void answersCreatedWhenAnyAppointmentIsCreated() throws Exception {
+        AppointmentService mockedService = mock(AppointmentService.class);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AppointmentController(mockedService,
+                mock(AvailableTimeService.class), mock(AvailableTimeScheduleService.class), mock(AsyncBookingService.class),
+                mock(SlotEventBroadcaster.class), mock(NdjsonStreamWriter.class))).build();
+        String body = "{\"clientId\":1,\"serviceId\":1,\"mode\":\"BEST_EFFORT\",\"items\":[{\"availableTimeId\":1,\"dateTime\":\"2030-01-01T09:00:00\"}]}";
+
+        when(mockedService.createBatch(any())).thenReturn(new BatchBookingResult(List.of(new Appointment()), List.of()));
+        mockMvc.perform(post("/appointments/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+
+        when(mockedService.createBatch(any())).thenReturn(new BatchBookingResult(List.of(), List.of(new Rejection(1L, "O horário selecionado já está agendado."))));
+        mockMvc.perform(post("/appointments/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    private String singleBookingMessage(AvailableTime availableTime, LocalDateTime dateTime) {
+        try {
+            appointmentService.create(appointment(availableTime, dateTime));
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+        throw new AssertionError("O agendamento individual deveria ter sido recusado");
+    }
+
+    private long appointmentCount() {
+        return jdbcTemplate.queryForObject("select count(*) from appointment where client_id = ?", Long.class, clientId);
+    }
+
+    private DailyReportResponse.Totals report(LocalDate date) {
+        return dailyStatsService.report(date, date, ServiceType.BARBA).totals();
+    }
+
+    private AvailableTime slot(LocalDate date, String start) {
+        AvailableTime availableTime = new AvailableTime();
+        availableTime.setDate(date);
+        availableTime.setStartTime(LocalTime.parse(start));
+        availableTime.setEndTime(LocalTime.parse(start).plusMinutes(30));
+        availableTime.setServiceBarber(serviceBarber);
+        return availableTimeService.create(availableTime);
+    }
+
+    private static AvailableTime missingSlot(long id) {
+        AvailableTime availableTime = new AvailableTime();
+        availableTime.setId(id);
+        return availableTime;
+    }
+
+    private Appointment appointment(AvailableTime availableTime, LocalDateTime dateTime) {
+        Client client = new Client();
+        client.setId(clientId);
+        AvailableTime reference = new AvailableTime();
+        reference.setId(availableTime.getId());
+
+        Appointment appointment = new Appointment();
+        appointment.setDateTime(dateTime);
+        appointment.setClient(client);
+        appointment.setServiceBarber(serviceBarber);
+        appointment.setAvailableTime(reference);
+        return appointment;
+    }
+
+    private BatchBookingRequest request(Mode mode, Item... items) {
+        return new BatchBookingRequest(clientId, serviceBarber.getId(), mode, List.of(items));
+    }
+
+    private static Item item(AvailableTime availableTime) {
+        return new Item(availableTime.getId(), start(availableTime));
+    }
+
+    private static LocalDateTime start(AvailableTime availableTime) {
+        return LocalDateTime.of(availableTime.getDate(), availableTime.getStartTime());
+    }
+}
@@ -0,0 +1,141 @@
+package me.dio.barbearia.service;
+
+import jakarta.persistence.EntityManager;
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.util.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class AppointmentBookingContentionTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentBookingContentionTest.class);
+    private static final int CONCURRENT_REQUESTS = 200;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AvailableTimeService availableTimeService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ServiceBarberService serviceBarberService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void concurrentBookingsOfTheSameSlotHaveExactlyOneWinner() throws Exception {
+        serviceBarberService.initializeDefaultServices();
+        ServiceBarber serviceBarber = serviceBarberService.findByType(ServiceType.CABELO);
+
+        Client client = new Client();
+        client.setName("Cliente Concorrente");
+        client.setCpf("52998224725");
+        client.setPhone("11999999999");
+        client = clientService.create(client);
+
+        AvailableTime slot = new AvailableTime();
+        slot.setDate(LocalDate.now().plusDays(1));
+        slot.setStartTime(LocalTime.of(10, 0));
+        slot.setEndTime(LocalTime.of(10, 40));
+        slot.setServiceBarber(serviceBarber);
+        slot = availableTimeService.create(slot);
+
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            Appointment request = newAppointment(client, serviceBarber, slot);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    appointmentService.create(request);
+                    winners.incrementAndGet();
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        log.info("Contenção em um horário: {} requisições em {} ms ({} req/s)",
+                CONCURRENT_REQUESTS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), CONCURRENT_REQUESTS * 1_000_000_000L / elapsedNanos);
+
+        assertThat(winners.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(CONCURRENT_REQUESTS - 1);
+        assertThat(availableTimeService.findById(slot.getId()).isBooked()).isTrue();
+    }
+
+    @Test
+    void bookingKeepsLoadedEntitiesAttached() {
+        serviceBarberService.initializeDefaultServices();
+        AvailableTime slot = new AvailableTime();
+        slot.setDate(LocalDate.now().plusDays(2));
+        slot.setStartTime(LocalTime.of(11, 0));
+        slot.setEndTime(LocalTime.of(11, 30));
+        slot.setServiceBarber(serviceBarberService.findByType(ServiceType.BARBA));
+        Long id = availableTimeService.create(slot).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            AvailableTime loaded = availableTimeService.findById(id);
+
+            // O UPDATE condicional não pode desligar o que a transação já carregou
+            assertThat(availableTimeService.book(id)).isSameAs(loaded);
+            assertThat(entityManager.contains(loaded)).isTrue();
+            assertThat(loaded.isBooked()).isTrue();
+
+            availableTimeService.release(id);
+            assertThat(entityManager.contains(loaded)).isTrue();
+            assertThat(loaded.isBooked()).isFalse();
+        });
+    }
+
+    private static Appointment newAppointment(Client client, ServiceBarber serviceBarber, AvailableTime slot) {
+        Appointment appointment = new Appointment();
+        appointment.setClient(client);
+        appointment.setServiceBarber(serviceBarber);
+        appointment.setAvailableTime(slot);
+        appointment.setDateTime(LocalDateTime.of(slot.getDate(), slot.getStartTime()));
+        return appointment;
+    }
+}
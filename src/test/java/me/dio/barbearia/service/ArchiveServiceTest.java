@@ -0,0 +1,143 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.domain.repository.AppointmentRepository;
+import me.dio.barbearia.domain.repository.ArchivedAppointmentRepository;
+import me.dio.barbearia.domain.repository.ArchivedAvailableTimeRepository;
+import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.service.ArchiveService.ArchiveResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cobre uma rodada de arquivamento: agendamentos passados e horários agendados vão para o arquivo e
+ * saem das tabelas em uso, horários livres expirados só são removidos, o que vem a partir do
+ * horizonte fica intacto e a rodada para incompleta ao atingir {@code max-batches-per-run}. Os
+ * dados são gravados por JDBC, já que a aplicação não aceita horários no passado.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive_db",
+        "spring.jpa.show-sql=false",
+        "barbearia.outbox.relay-interval=1h",
+        "barbearia.archive.retention-days=30",
+        "barbearia.archive.batch-size=2",
+        "barbearia.archive.max-batches-per-run=2"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ArchiveServiceTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ServiceBarberService serviceBarberService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AvailableTimeRepository availableTimeRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private ArchivedAvailableTimeRepository archivedAvailableTimeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long serviceId;
+    private Long clientId;
+
+    @BeforeAll
+    void createClient() {
+        serviceId = serviceBarberService.findByType(ServiceType.BARBA).getId();
+        jdbcTemplate.update("insert into client (name, cpf, phone) values ('Cliente arquivo', '52998224725', '11999999999')");
+        clientId = jdbcTemplate.queryForObject("select id from client where cpf = '52998224725'", Long.class);
+    }
+
+    @Test
+    void archivesPastRowsAndKeepsRowsFromHorizon() {
+        LocalDate past = archiveService.horizon().minusDays(1);
+        LocalDate horizon = archiveService.horizon();
+
+        long pastSlot = insertSlot(past, "09:00", true);
+        long pastAppointment = insertAppointment(past, "09:00", pastSlot);
+        long bookedWithoutAppointment = insertSlot(past, "10:00", true);
+        long expiredFreeSlot = insertSlot(past, "11:00", false);
+        long horizonSlot = insertSlot(horizon, "09:00", true);
+        long horizonAppointment = insertAppointment(horizon, "09:00", horizonSlot);
+        long horizonFreeSlot = insertSlot(horizon, "10:00", false);
+
+        ArchiveResult result = archiveService.archive().orElseThrow();
+
+        assertThat(result.completed()).isTrue();
+        assertThat(result.appointments()).isEqualTo(1);
+        assertThat(result.archivedAvailableTimes()).isEqualTo(2);
+        assertThat(result.purgedAvailableTimes()).isEqualTo(1);
+
+        assertThat(archivedAppointmentRepository.existsById(pastAppointment)).isTrue();
+        assertThat(appointmentRepository.existsById(pastAppointment)).isFalse();
+        assertThat(archivedAvailableTimeRepository.existsById(pastSlot)).isTrue();
+        assertThat(archivedAvailableTimeRepository.existsById(bookedWithoutAppointment)).isTrue();
+        assertThat(availableTimeRepository.existsById(pastSlot)).isFalse();
+        assertThat(availableTimeRepository.existsById(bookedWithoutAppointment)).isFalse();
+
+        assertThat(availableTimeRepository.existsById(expiredFreeSlot)).isFalse();
+        assertThat(archivedAvailableTimeRepository.existsById(expiredFreeSlot)).isFalse();
+
+        assertThat(appointmentRepository.existsById(horizonAppointment)).isTrue();
+        assertThat(availableTimeRepository.existsById(horizonSlot)).isTrue();
+        assertThat(availableTimeRepository.existsById(horizonFreeSlot)).isTrue();
+        assertThat(archivedAppointmentRepository.existsById(horizonAppointment)).isFalse();
+    }
+
+    @Test
+    void stopsAtMaxBatchesPerRun() {
+        LocalDate past = archiveService.horizon().minusDays(2);
+        List<Long> appointments = new ArrayList<>();
+        for (int hour = 8; hour < 13; hour++) {
+            String start = LocalTime.of(hour, 0).toString();
+            appointments.add(insertAppointment(past, start, insertSlot(past, start, true)));
+        }
+
+        // Dois lotes de dois agendamentos por rodada
+        ArchiveResult first = archiveService.archive().orElseThrow();
+        assertThat(first.completed()).isFalse();
+        assertThat(first.appointments()).isEqualTo(4);
+        assertThat(appointments.stream().filter(appointmentRepository::existsById)).hasSize(1);
+
+        ArchiveResult second = archiveService.archive().orElseThrow();
+        assertThat(second.completed()).isTrue();
+        assertThat(second.appointments()).isEqualTo(1);
+        assertThat(appointments).allMatch(archivedAppointmentRepository::existsById);
+    }
+
+    private long insertSlot(LocalDate date, String start, boolean booked) {
+        Long id = jdbcTemplate.queryForObject("select next value for available_time_seq", Long.class);
+        LocalTime startTime = LocalTime.parse(start);
+        jdbcTemplate.update("insert into available_time (id, date, start_time, end_time, is_booked, service_id, version) " +
+                "values (?, ?, ?, ?, ?, ?, 0)", id, date, startTime, startTime.plusMinutes(30), booked, serviceId);
+        return id;
+    }
+
+    private long insertAppointment(LocalDate date, String start, long availableTimeId) {
+        Long id = jdbcTemplate.queryForObject("select next value for appointment_seq", Long.class);
+        jdbcTemplate.update("insert into appointment (id, date_time, service_id, price, client_id, available_time_id) " +
+                "values (?, ?, ?, ?, ?, ?)", id, date.atTime(LocalTime.parse(start)), serviceId, new BigDecimal("35.00"), clientId, availableTimeId);
+        return id;
+    }
+}
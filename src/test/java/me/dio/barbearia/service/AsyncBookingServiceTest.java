@@ -0,0 +1,165 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.controller.AppointmentController;
+import me.dio.barbearia.controller.NdjsonStreamWriter;
+import me.dio.barbearia.domain.model.Appointment;
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.dto.BookingTicketResponse;
+import me.dio.barbearia.dto.BookingTicketResponse.Status;
+import me.dio.barbearia.util.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cobre o agrupamento dos pedidos pelo mesmo horário, a repetição pedido a pedido quando a
+ * transação em lote é desfeita, a recusa do grupo em falhas inesperadas e o 503 com a fila cheia.
+ * Os pedidos são enfileirados antes de as threads consumidoras começarem, para que caiam no mesmo
+ * lote.
+ */
+class AsyncBookingServiceTest {
+
+    private static final long INVALID_CLIENT = 99L;
+    private static final long DATABASE_DOWN_CLIENT = 98L;
+
+    private final AppointmentService appointmentService = mock(AppointmentService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AtomicLong ids = new AtomicLong();
+    private AsyncBookingService asyncBookingService;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (asyncBookingService != null) {
+            asyncBookingService.stop();
+        }
+    }
+
+    @Test
+    void coalescesRequestsForSameSlot() {
+        asyncBookingService = service(100);
+        givenAppointmentsAreCreated();
+
+        String first = submit(1L, 1L);
+        String second = submit(2L, 1L);
+        String third = submit(3L, 1L);
+        String otherSlot = submit(4L, 2L);
+        asyncBookingService.start();
+
+        assertThat(await(first).status()).isEqualTo(Status.CONFIRMED);
+        assertThat(await(otherSlot).status()).isEqualTo(Status.CONFIRMED);
+        assertThat(await(second).status()).isEqualTo(Status.REJECTED);
+        assertThat(await(third).status()).isEqualTo(Status.REJECTED);
+        // Só o primeiro pedido de cada horário chega ao banco, na mesma transação
+        verify(appointmentService, times(2)).create(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void retriesEachLeaderWhenBatchRollsBack() {
+        asyncBookingService = service(100);
+        givenAppointmentsAreCreated();
+
+        String invalid = submit(INVALID_CLIENT, 1L);
+        String next = submit(2L, 1L);
+        String otherSlot = submit(3L, 2L);
+        asyncBookingService.start();
+
+        assertThat(await(invalid).status()).isEqualTo(Status.REJECTED);
+        // O pedido recusado por um motivo só dele passa o horário ao seguinte da fila
+        assertThat(await(next).status()).isEqualTo(Status.CONFIRMED);
+        assertThat(await(otherSlot).status()).isEqualTo(Status.CONFIRMED);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void rejectsWholeGroupOnUnexpectedFailure() {
+        asyncBookingService = service(100);
+        givenAppointmentsAreCreated();
+
+        String failed = submit(DATABASE_DOWN_CLIENT, 1L);
+        String next = submit(2L, 1L);
+        asyncBookingService.start();
+
+        assertThat(await(failed).status()).isEqualTo(Status.REJECTED);
+        assertThat(await(next).status()).isEqualTo(Status.REJECTED);
+        assertThat(await(next).message()).isEqualTo("Não foi possível concluir o agendamento.");
+        verify(appointmentService, never()).create(argThat(appointment -> appointment.getClient().getId() == 2L));
+    }
+
+    @Test
+    void answersServiceUnavailableWhenQueueIsFull() throws Exception {
+        asyncBookingService = service(1);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AppointmentController(appointmentService,
+                mock(AvailableTimeService.class), mock(AvailableTimeScheduleService.class), asyncBookingService,
+                mock(SlotEventBroadcaster.class), mock(NdjsonStreamWriter.class))).build();
+        String body = "{\"dateTime\":\"2030-01-01T09:00:00\",\"client\":{\"id\":1},\"serviceBarber\":{\"id\":1},\"availableTime\":{\"id\":1}}";
+
+        mockMvc.perform(post("/appointments/async").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/appointments/async").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    private AsyncBookingService service(int queueCapacity) {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new AsyncBookingService(appointmentService, transactionManager, 1, queueCapacity, 50, 1000, Duration.ofMinutes(10));
+    }
+
+    private void givenAppointmentsAreCreated() {
+        when(appointmentService.create(any())).thenAnswer(invocation -> {
+            Appointment appointment = invocation.getArgument(0);
+            if (appointment.getClient().getId() == INVALID_CLIENT) {
+                throw new BusinessException("Cliente não encontrado.");
+            }
+            if (appointment.getClient().getId() == DATABASE_DOWN_CLIENT) {
+                throw new DataAccessResourceFailureException("Banco indisponível");
+            }
+            appointment.setId(ids.incrementAndGet());
+            return appointment;
+        });
+    }
+
+    private String submit(Long clientId, Long availableTimeId) {
+        Client client = new Client();
+        client.setId(clientId);
+        ServiceBarber serviceBarber = new ServiceBarber();
+        serviceBarber.setId(1L);
+        AvailableTime availableTime = new AvailableTime();
+        availableTime.setId(availableTimeId);
+
+        Appointment appointment = new Appointment();
+        appointment.setDateTime(LocalDateTime.of(2030, 1, 1, 9, 0));
+        appointment.setClient(client);
+        appointment.setServiceBarber(serviceBarber);
+        appointment.setAvailableTime(availableTime);
+        return asyncBookingService.submit(appointment).orElseThrow().id();
+    }
+
+    private BookingTicketResponse await(String ticketId) {
+        return asyncBookingService.awaitTicket(ticketId, Duration.ofSeconds(10)).join();
+    }
+}
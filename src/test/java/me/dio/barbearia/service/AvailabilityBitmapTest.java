@@ -0,0 +1,127 @@
+package me.dio.barbearia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.dio.barbearia.domain.event.SlotChange;
+import me.dio.barbearia.domain.event.SlotChangedEvent;
+import me.dio.barbearia.domain.repository.AvailableTimeRepository;
+import me.dio.barbearia.dto.AvailableSlotView;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cobre a aritmética de bits do índice de horários livres (máscara da primeira palavra, passagem
+ * entre palavras, arredondamento do início), a volta ao banco para datas fora da grade, os eventos
+ * de agendamento e a recarga que traz alterações feitas por outras instâncias.
+ */
+class AvailabilityBitmapTest {
+
+    private static final long SERVICE = 7L;
+
+    private final LocalDate today = LocalDate.now();
+    private final AvailableTimeRepository repository = mock(AvailableTimeRepository.class);
+
+    @Test
+    void collectsFreeSlotsAcrossWordBoundary() {
+        // Grade de 15 minutos: 96 posições, duas palavras; 15:45 é a posição 63 e 16:00 a 64
+        List<AvailableSlotView> slots = List.of(
+                slot(1L, "00:00", 15), slot(2L, "15:30", 15), slot(3L, "15:45", 15),
+                slot(4L, "16:00", 15), slot(5L, "23:30", 15));
+        AvailabilityBitmap bitmap = bitmap(15, slots, slots);
+
+        List<AvailableSlotView> all = new ArrayList<>();
+        bitmap.collectFree(today, SERVICE, all);
+        assertThat(all).extracting(AvailableSlotView::id).containsExactly(1L, 2L, 3L, 4L, 5L);
+
+        List<AvailableSlotView> next = new ArrayList<>();
+        assertThat(bitmap.collectNext(today, SERVICE, LocalTime.parse("15:45"), 2, next)).isEqualTo(2);
+        assertThat(next).extracting(AvailableSlotView::id).containsExactly(3L, 4L);
+
+        next.clear();
+        assertThat(bitmap.collectNext(today, SERVICE, LocalTime.parse("16:00"), 10, next)).isEqualTo(2);
+        assertThat(next).extracting(AvailableSlotView::id).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void roundsUnalignedStartToNextPosition() {
+        List<AvailableSlotView> slots = List.of(slot(1L, "09:00", 30), slot(2L, "09:30", 30), slot(3L, "10:00", 30));
+        AvailabilityBitmap bitmap = bitmap(30, slots, slots);
+
+        List<AvailableSlotView> next = new ArrayList<>();
+        bitmap.collectNext(today, SERVICE, LocalTime.parse("09:01"), 10, next);
+        assertThat(next).extracting(AvailableSlotView::id).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void leavesOffGridDatesToDatabase() {
+        List<AvailableSlotView> slots = List.of(slot(1L, "09:00", 30), slot(2L, "09:10", 30));
+        AvailabilityBitmap bitmap = bitmap(30, slots, slots);
+
+        assertThat(bitmap.covers(today)).isFalse();
+        assertThat(bitmap.covers(today.plusDays(1))).isTrue();
+    }
+
+    @Test
+    void followsBookingEvents() {
+        List<AvailableSlotView> slots = List.of(slot(1L, "09:00", 30), slot(2L, "09:30", 30));
+        AvailabilityBitmap bitmap = bitmap(30, slots, slots);
+
+        bitmap.onSlotChanged(event(1L, "09:00", SlotChange.BOOKED));
+        assertThat(free(bitmap)).containsExactly(2L);
+
+        bitmap.onSlotChanged(event(1L, "09:00", SlotChange.FREED));
+        assertThat(free(bitmap)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void refreshPicksUpChangesFromOtherInstances() {
+        List<AvailableSlotView> slots = List.of(slot(1L, "09:00", 30), slot(2L, "09:30", 30));
+        AvailabilityBitmap bitmap = bitmap(30, slots, slots);
+
+        // Outra instância agendou o horário 1: nenhum evento chega aqui
+        when(repository.findFreeSlotsBetween(any(), any())).thenReturn(List.of(slots.get(1)));
+        bitmap.refresh();
+        assertThat(free(bitmap)).containsExactly(2L);
+    }
+
+    @Test
+    void stopsCoveringStaleDates() {
+        AvailabilityBitmap bitmap = new AvailabilityBitmap(repository, new SimpleMeterRegistry(), true, 30, 1, Duration.ZERO);
+        bitmap.refresh();
+        assertThat(bitmap.covers(today)).isFalse();
+    }
+
+    private AvailabilityBitmap bitmap(int gridMinutes, List<AvailableSlotView> slots, List<AvailableSlotView> free) {
+        when(repository.findSlotsBetween(any(), any())).thenReturn(slots);
+        when(repository.findFreeSlotsBetween(any(), any())).thenReturn(free);
+        AvailabilityBitmap bitmap = new AvailabilityBitmap(repository, new SimpleMeterRegistry(), true, gridMinutes, 1, Duration.ofMinutes(5));
+        bitmap.refresh();
+        return bitmap;
+    }
+
+    private List<Long> free(AvailabilityBitmap bitmap) {
+        List<AvailableSlotView> target = new ArrayList<>();
+        bitmap.collectFree(today, SERVICE, target);
+        return target.stream().map(AvailableSlotView::id).toList();
+    }
+
+    private AvailableSlotView slot(Long id, String start, int minutes) {
+        LocalTime startTime = LocalTime.parse(start);
+        return new AvailableSlotView(id, today, startTime, startTime.plusMinutes(minutes), SERVICE);
+    }
+
+    private SlotChangedEvent event(Long id, String start, SlotChange change) {
+        LocalTime startTime = LocalTime.parse(start);
+        return new SlotChangedEvent(id, today, today, startTime, startTime.plusMinutes(30), SERVICE,
+                change == SlotChange.BOOKED, change);
+    }
+}
@@ -0,0 +1,100 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que o cache de horários livres só descarta uma data depois do commit da alteração (e não
+ * a descarta quando a transação é desfeita), e que quem lê do cache recebe cópias próprias.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:availability_cache_db",
+        "spring.jpa.show-sql=false",
+        "barbearia.outbox.relay-interval=1h"
+})
+class AvailabilityCacheTest {
+
+    @Autowired
+    private AvailableTimeService availableTimeService;
+
+    @Autowired
+    private ServiceBarberService serviceBarberService;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void invalidatesDateAfterCommit() {
+        LocalDate date = LocalDate.now().plusDays(5);
+        Long id = availableTimeService.create(slot(date, "09:00", "09:30")).getId();
+        assertThat(freeIds(date)).contains(id);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            availableTimeService.book(id);
+            // Antes do commit as outras leituras continuam vendo o horário livre, inclusive pelo cache
+            assertThat(freeIds(date)).contains(id);
+        });
+        assertThat(freeIds(date)).doesNotContain(id);
+    }
+
+    @Test
+    void keepsDateWhenTransactionRollsBack() {
+        LocalDate date = LocalDate.now().plusDays(6);
+        Long id = availableTimeService.create(slot(date, "09:00", "09:30")).getId();
+        assertThat(freeIds(date)).contains(id);
+        long invalidations = availabilityCacheInvalidations();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            availableTimeService.book(id);
+            status.setRollbackOnly();
+        });
+        assertThat(freeIds(date)).contains(id);
+        assertThat(availabilityCacheInvalidations()).isEqualTo(invalidations);
+    }
+
+    @Test
+    void returnsCopiesToEachCaller() {
+        LocalDate date = LocalDate.now().plusDays(7);
+        Long id = availableTimeService.create(slot(date, "09:00", "09:30")).getId();
+
+        List<AvailableTime> first = availableTimeService.findAvailableTimesByDate(date);
+        first.forEach(availableTime -> availableTime.setStartTime(LocalTime.MIDNIGHT));
+        first.clear();
+
+        List<AvailableTime> second = availableTimeService.findAvailableTimesByDate(date);
+        assertThat(second).extracting(AvailableTime::getId).containsExactly(id);
+        assertThat(second.get(0).getStartTime()).isEqualTo(LocalTime.of(9, 0));
+    }
+
+    private long availabilityCacheInvalidations() {
+        return availabilityCache.stats().invalidations();
+    }
+
+    private List<Long> freeIds(LocalDate date) {
+        return availableTimeService.findAvailableTimesByDate(date).stream().map(AvailableTime::getId).toList();
+    }
+
+    private AvailableTime slot(LocalDate date, String start, String end) {
+        ServiceBarber serviceBarber = serviceBarberService.findByType(ServiceType.BARBA);
+        AvailableTime availableTime = new AvailableTime();
+        availableTime.setDate(date);
+        availableTime.setStartTime(LocalTime.parse(start));
+        availableTime.setEndTime(LocalTime.parse(end));
+        availableTime.setServiceBarber(serviceBarber);
+        return availableTime;
+    }
+}
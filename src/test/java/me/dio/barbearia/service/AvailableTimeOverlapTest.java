@@ -0,0 +1,104 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.model.AvailableTime;
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.dto.ScheduleResult;
+import me.dio.barbearia.dto.ScheduleTemplate;
+import me.dio.barbearia.util.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Garante que a sobreposição de horários é recusada pelo banco mesmo quando o índice em memória
+ * não conhece o horário existente (gravado por outra instância), e que, com a capacidade padrão da
+ * barbearia inteira, horários de serviços diferentes também não podem se sobrepor.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:slot_overlap_db",
+        "spring.jpa.show-sql=false"
+})
+class AvailableTimeOverlapTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AvailableTimeService availableTimeService;
+
+    @Autowired
+    private ServiceBarberService serviceBarberService;
+
+    @Autowired
+    private AvailableTimeScheduleService availableTimeScheduleService;
+
+    @Test
+    void rejectsOverlapUnknownToIndex() {
+        ServiceBarber serviceBarber = serviceBarberService.findByType(ServiceType.BARBA);
+        AvailableTime first = availableTimeService.create(slot(serviceBarber, "09:00", "09:30"));
+        assertThat(first.getId()).isNotNull();
+
+        // Gravado por fora da aplicação: o índice já carregou a data e não recebe evento
+        jdbcTemplate.update("insert into available_time (id, date, start_time, end_time, is_booked, service_id, version) " +
+                "values (next value for available_time_seq, ?, ?, ?, false, ?, 0)", DATE, LocalTime.of(10, 0), LocalTime.of(10, 30), serviceBarber.getId());
+
+        assertThatThrownBy(() -> availableTimeService.create(slot(serviceBarber, "10:15", "10:45")))
+                .isInstanceOf(BusinessException.class);
+        assertThat(availableTimeService.create(slot(serviceBarber, "10:30", "11:00")).getId()).isNotNull();
+    }
+
+    @Test
+    void rejectsOtherServiceAtSameTime() {
+        LocalDate date = DATE.plusDays(1);
+        ServiceBarber barba = serviceBarberService.findByType(ServiceType.BARBA);
+        ServiceBarber cabelo = serviceBarberService.findByType(ServiceType.CABELO);
+        availableTimeService.create(slot(barba, date, "14:00", "14:40"));
+
+        // Um único barbeiro: o horário de cabelo ocuparia o mesmo barbeiro
+        assertThatThrownBy(() -> availableTimeService.create(slot(cabelo, date, "14:00", "14:40")))
+                .isInstanceOf(BusinessException.class);
+        assertThat(availableTimeService.create(slot(cabelo, date, "14:40", "15:20")).getId()).isNotNull();
+    }
+
+    @Test
+    void scheduleSkipsTimesTakenByOtherServices() {
+        LocalDate date = DATE.plusDays(2);
+        ServiceBarber barba = serviceBarberService.findByType(ServiceType.BARBA);
+        ServiceBarber cabelo = serviceBarberService.findByType(ServiceType.CABELO);
+        availableTimeService.create(slot(cabelo, date, "09:00", "09:30"));
+
+        ScheduleResult result = availableTimeScheduleService.create(new ScheduleTemplate(date, date, EnumSet.allOf(DayOfWeek.class),
+                LocalTime.of(9, 0), LocalTime.of(10, 0), 30, List.of(barba.getId(), cabelo.getId())));
+
+        // 09:00 já é do cabelo; às 09:30 só o primeiro serviço da lista é criado
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(3);
+        assertThat(availableTimeService.findOverlaps(date)).isEmpty();
+    }
+
+    private static AvailableTime slot(ServiceBarber serviceBarber, String start, String end) {
+        return slot(serviceBarber, DATE, start, end);
+    }
+
+    private static AvailableTime slot(ServiceBarber serviceBarber, LocalDate date, String start, String end) {
+        AvailableTime availableTime = new AvailableTime();
+        availableTime.setDate(date);
+        availableTime.setStartTime(LocalTime.parse(start));
+        availableTime.setEndTime(LocalTime.parse(end));
+        availableTime.setServiceBarber(serviceBarber);
+        return availableTime;
+    }
+}
@@ -0,0 +1,129 @@
+package me.dio.barbearia.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.support.SlotDatasetGenerator;
+import me.dio.barbearia.util.BusinessException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Garante que a busca por CPF resolve o ID pelo índice em memória, que um CPF ausente do índice é
+ * procurado no banco, que um ID desatualizado não é usado e que a verificação de CPF duplicado
+ * consulta o banco mesmo com o índice desatualizado.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cpf_index_db",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // O relay do outbox numera registros a cada rodada e entraria na contagem de comandos
+        "barbearia.outbox.relay-interval=1h"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CpfIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CpfIndex cpfIndex;
+
+    @Autowired
+    private ClientService clientService;
+
+    private Statistics statistics;
+    private String anyCpf;
+
+    @BeforeAll
+    void generateClients() {
+        new SlotDatasetGenerator(jdbcTemplate, 13L).generateClients(200);
+        anyCpf = jdbcTemplate.queryForObject("select cpf from client order by id limit 1", String.class);
+        // Os clientes foram inseridos por JDBC, depois da carga feita na subida da aplicação
+        cpfIndex.warmUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void resolvesIndexedCpfWithoutSql() {
+        statistics.clear();
+        assertThat(cpfIndex.findId(anyCpf)).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void looksUpMissesInDatabase() {
+        // Cliente gravado por fora da aplicação (ou por outra instância), ausente do índice
+        jdbcTemplate.update("insert into client (name, cpf, phone) values ('Cliente externo', '86288366757', '11999999999')");
+        assertThat(cpfIndex.findId("86288366757")).isPresent();
+        assertThat(cpfIndex.findId("52998224725")).isEmpty();
+        assertThat(clientService.findByCpf("862.883.667-57").getName()).isEqualTo("Cliente externo");
+    }
+
+    @Test
+    void acceptsCpfReleasedByAnotherInstance() {
+        Client created = clientService.create(client("15350946056"));
+        // Outra instância exclui o cliente: o índice desta ainda tem o CPF até a próxima recarga
+        jdbcTemplate.update("delete from client where id = ?", created.getId());
+
+        assertThat(clientService.create(client("15350946056")).getId()).isNotEqualTo(created.getId());
+    }
+
+    @Test
+    void findsClientWhenIndexedIdIsStale() {
+        Client created = clientService.create(client("04690123071"));
+        // Outra instância troca o cliente dono do CPF sem passar por este índice
+        jdbcTemplate.update("delete from client where id = ?", created.getId());
+        jdbcTemplate.update("insert into client (name, cpf, phone) values ('Cliente novo', '04690123071', '11999999999')");
+
+        assertThat(clientService.findByCpf("04690123071").getName()).isEqualTo("Cliente novo");
+        assertThat(cpfIndex.findId("04690123071").orElseThrow()).isNotEqualTo(created.getId());
+    }
+
+    @Test
+    void findsClientByFormattedCpfWithSingleStatement() {
+        statistics.clear();
+        String formattedCpf = anyCpf.substring(0, 3) + "." + anyCpf.substring(3, 6) + "." + anyCpf.substring(6, 9) + "-" + anyCpf.substring(9);
+        Client client = clientService.findByCpf(formattedCpf);
+        assertThat(client.getCpf()).isEqualTo(anyCpf);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void followsClientWrites() {
+        Client created = clientService.create(client("111.444.777-35"));
+        assertThat(created.getCpf()).isEqualTo("11144477735");
+        assertThatThrownBy(() -> clientService.create(client("11144477735"))).isInstanceOf(BusinessException.class);
+
+        clientService.update(created.getId(), client("39053344705"));
+        assertThat(cpfIndex.findId("11144477735")).isEmpty();
+        assertThat(cpfIndex.findId("39053344705")).contains(created.getId());
+        // Manter o próprio CPF não conta como duplicado
+        clientService.update(created.getId(), client("39053344705"));
+
+        clientService.delete(created.getId());
+        assertThat(cpfIndex.findId("39053344705")).isEmpty();
+        assertThatThrownBy(() -> clientService.findByCpf("39053344705")).isInstanceOf(NoSuchElementException.class);
+    }
+
+    private static Client client(String cpf) {
+        Client client = new Client();
+        client.setName("Cliente índice");
+        client.setCpf(cpf);
+        client.setPhone("11999999999");
+        return client;
+    }
+}
@@ -0,0 +1,127 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.model.ServiceBarber;
+import me.dio.barbearia.domain.model.ServiceType;
+import me.dio.barbearia.dto.DailyReportResponse;
+import me.dio.barbearia.util.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cobre os incrementos relativos dos totais diários (com a criação da linha na primeira alteração),
+ * o limite de intervalo do relatório e a reconciliação, que recalcula só as datas a partir do
+ * horizonte de arquivamento.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:daily_stats_db",
+        "spring.jpa.show-sql=false",
+        "barbearia.outbox.relay-interval=1h"
+})
+class DailyStatsServiceTest {
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private ServiceBarberService serviceBarberService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void addsDeltasToRowCreatedOnFirstChange() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(200);
+        ServiceBarber barba = serviceBarberService.findByType(ServiceType.BARBA);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyStatsService.addSlots(date, barba, 3);
+            dailyStatsService.addSlots(date, barba, -1);
+            dailyStatsService.addAppointment(date, barba, 2, new BigDecimal("35.00"));
+            dailyStatsService.addAppointment(date, barba, -1, new BigDecimal("35.00"));
+        });
+        assertThat(totals(date, ServiceType.BARBA)).isEqualTo(List.of(2L, 1L, new BigDecimal("35.00")));
+
+        // Incrementos concorrentes na mesma linha não se perdem
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                futures.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status -> dailyStatsService.addSlots(date, barba, 1))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(totals(date, ServiceType.BARBA).get(0)).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsReportRangesOverOneYear() {
+        LocalDate from = LocalDate.now();
+
+        assertThat(dailyStatsService.report(from, from.plusDays(365), null).days()).isNotNull();
+        assertThatThrownBy(() -> dailyStatsService.report(from, from.plusDays(366), null)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> dailyStatsService.report(from, from.minusDays(1), null)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void reconcilesOnlyFromArchiveHorizon() {
+        LocalDate horizon = archiveService.horizon();
+        LocalDate archived = horizon.minusDays(1);
+        ServiceBarber barba = serviceBarberService.findByType(ServiceType.BARBA);
+        ServiceBarber cabelo = serviceBarberService.findByType(ServiceType.CABELO);
+
+        // Totais que não batem com os horários: no horizonte e antes dele
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyStatsService.addSlots(archived, barba, 5);
+            dailyStatsService.addSlots(horizon, barba, 5);
+        });
+        // Horários gravados por fora da aplicação, ainda sem linha de totais
+        insertSlot(horizon, "09:00", cabelo);
+        insertSlot(horizon, "10:00", cabelo);
+
+        assertThat(dailyStatsService.reconcile(horizon.minusDays(3), horizon.plusDays(1))).isEqualTo(2);
+        assertThat(totals(horizon, ServiceType.BARBA).get(0)).isEqualTo(0L);
+        assertThat(totals(horizon, ServiceType.CABELO).get(0)).isEqualTo(2L);
+        assertThat(totals(archived, ServiceType.BARBA).get(0)).isEqualTo(5L);
+
+        assertThat(dailyStatsService.reconcile(horizon.minusDays(10), archived)).isZero();
+        assertThat(dailyStatsService.reconcile(horizon.minusDays(3), horizon.plusDays(1))).isZero();
+    }
+
+    private List<Object> totals(LocalDate date, ServiceType type) {
+        DailyReportResponse report = dailyStatsService.report(date, date, type);
+        assertThat(report.days()).hasSize(1);
+        DailyReportResponse.Totals totals = report.days().get(0).totals();
+        return List.of(totals.slots(), totals.appointments(), totals.revenue());
+    }
+
+    private void insertSlot(LocalDate date, String start, ServiceBarber serviceBarber) {
+        LocalTime startTime = LocalTime.parse(start);
+        jdbcTemplate.update("insert into available_time (id, date, start_time, end_time, is_booked, service_id, version) " +
+                "values (next value for available_time_seq, ?, ?, ?, false, ?, 0)", date, startTime, startTime.plusMinutes(30), serviceBarber.getId());
+    }
+}
@@ -0,0 +1,115 @@
+package me.dio.barbearia.service;
+
+import me.dio.barbearia.domain.model.Client;
+import me.dio.barbearia.domain.model.OutboxRecord.Operation;
+import me.dio.barbearia.dto.OutboxMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que um registro do outbox cuja transação faz commit depois de registros mais novos já
+ * entregues ainda é entregue, e que cada destino recebe os registros em ordem de sequência.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox_relay_db",
+        "spring.jpa.show-sql=false",
+        "barbearia.outbox.relay-interval=1h"
+})
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @Test
+    void deliversRecordCommittedAfterNewerRecords() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> lateTransaction = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            outboxService.clientChanged(client(1L), Operation.UPDATED);
+            written.countDown();
+            await(commit);
+        }));
+        assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> outboxService.clientChanged(client(2L), Operation.UPDATED));
+        outboxRelay.relay();
+        assertThat(sink.delivered()).extracting(OutboxMessage::aggregateId).containsExactly(2L);
+
+        commit.countDown();
+        lateTransaction.get(10, TimeUnit.SECONDS);
+        outboxRelay.relay();
+
+        List<OutboxMessage> delivered = sink.delivered();
+        assertThat(delivered).extracting(OutboxMessage::aggregateId).containsExactly(2L, 1L);
+        // O registro atrasado reservou o id menor, mas recebe o número de sequência maior
+        assertThat(delivered.get(1).id()).isLessThan(delivered.get(0).id());
+        assertThat(delivered.get(1).sequenceNumber()).isGreaterThan(delivered.get(0).sequenceNumber());
+        assertThat(outboxService.findChanges(delivered.get(0).sequenceNumber(), 10).content())
+                .extracting(OutboxMessage::aggregateId).containsExactly(1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Client client(Long id) {
+        Client client = new Client();
+        client.setId(id);
+        client.setName("Cliente outbox");
+        client.setPhone("11999999999");
+        return client;
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    static class RecordingSink implements OutboxSink {
+
+        private final List<OutboxMessage> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public void deliver(List<OutboxMessage> batch) {
+            messages.addAll(batch);
+        }
+
+        List<OutboxMessage> delivered() {
+            return List.copyOf(messages);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package me.dio.barbearia.support;
+
+import me.dio.barbearia.domain.model.ServiceType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera massas de dados grandes diretamente via JDBC em lote, sem passar pelas regras de negócio.
+ * Usado pelos testes de plano de consulta e pelos benchmarks.
+ */
+public class SlotDatasetGenerator {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    public SlotDatasetGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    public List<Long> ensureServices() {
+        List<Long> serviceIds = new ArrayList<>();
+        for (ServiceType type : ServiceType.values()) {
+            List<Long> existing = jdbcTemplate.queryForList("select id from service_barber where type = ?", Long.class, type.name());
+            if (existing.isEmpty()) {
+                jdbcTemplate.update("insert into service_barber (type, price) values (?, ?)", type.name(), BigDecimal.valueOf(type.getPrice()));
+                existing = jdbcTemplate.queryForList("select id from service_barber where type = ?", Long.class, type.name());
+            }
+            serviceIds.add(existing.get(0));
+        }
+        return serviceIds;
+    }
+
+    public List<Long> generateClients(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        long base = 10_000_000_000L + random.nextInt(1_000_000) * 1_000L;
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"Cliente " + i, String.valueOf(base + i), "11900000000"});
+        }
+        batchInsert("insert into client (name, cpf, phone) values (?, ?, ?)", rows);
+        return jdbcTemplate.queryForList("select id from client order by id", Long.class);
+    }
+
+    /**
+     * Cria horários para {@code days} dias consecutivos, um por serviço a cada {@code slotMinutes}
+     * entre a abertura e o fechamento. Uma fração {@code bookedRatio} deles é marcada como agendada
+     * e recebe um agendamento para um cliente aleatório.
+     *
+     * @return quantidade de horários criados
+     */
+    public int generateSlots(LocalDate firstDay, int days, LocalTime opening, LocalTime closing, int slotMinutes,
+                             double bookedRatio, List<Long> serviceIds, List<Long> clientIds) {
+        List<Object[]> slotRows = new ArrayList<>(BATCH_SIZE);
+        int created = 0;
+
+        for (int day = 0; day < days; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            for (LocalTime start = opening; !start.plusMinutes(slotMinutes).isAfter(closing); start = start.plusMinutes(slotMinutes)) {
+                for (Long serviceId : serviceIds) {
+                    boolean booked = !clientIds.isEmpty() && random.nextDouble() < bookedRatio;
+                    slotRows.add(new Object[]{Date.valueOf(date), Time.valueOf(start), Time.valueOf(start.plusMinutes(slotMinutes)), booked, serviceId});
+                    created++;
+                }
+                if (slotRows.size() >= BATCH_SIZE) {
+                    insertSlots(slotRows);
+                    slotRows.clear();
+                }
+            }
+        }
+        insertSlots(slotRows);
+
+        if (!clientIds.isEmpty()) {
+            generateAppointmentsForBookedSlots(clientIds);
+        }
+        return created;
+    }
+
+    private void insertSlots(List<Object[]> rows) {
+        batchInsert("insert into available_time (id, date, start_time, end_time, is_booked, service_id, version) " +
+                "values (next value for available_time_seq, ?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    private void generateAppointmentsForBookedSlots(List<Long> clientIds) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        jdbcTemplate.query("select a.id, a.date, a.start_time, a.service_id, s.price from available_time a " +
+                        "join service_barber s on s.id = a.service_id " +
+                        "left join appointment ap on ap.available_time_id = a.id where a.is_booked = true and ap.id is null",
+                resultSet -> {
+                    LocalDateTime dateTime = LocalDateTime.of(resultSet.getDate(2).toLocalDate(), resultSet.getTime(3).toLocalTime());
+                    Long clientId = clientIds.get(random.nextInt(clientIds.size()));
+                    rows.add(new Object[]{Timestamp.valueOf(dateTime), resultSet.getLong(4), resultSet.getBigDecimal(5), clientId, resultSet.getLong(1)});
+                });
+        batchInsert("insert into appointment (id, date_time, service_id, price, client_id, available_time_id) " +
+                "values (next value for appointment_seq, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.dio.barbearia.util;
+
+import me.dio.barbearia.util.IntervalSet.Interval;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalSetTest {
+
+    private static final int H9 = 9 * 3600;
+    private static final int H10 = 10 * 3600;
+    private static final int H11 = 11 * 3600;
+    private static final int H12 = 12 * 3600;
+
+    @Test
+    void detectsPartialOverlapButNotTouchingIntervals() {
+        IntervalSet intervals = new IntervalSet();
+        intervals.add(1, H9, H9 + 40 * 60);
+
+        assertThat(intervals.fits(H9 + 30 * 60, H10, Long.MIN_VALUE, 1)).isFalse();
+        assertThat(intervals.overlapping(H9 + 30 * 60, H10, Long.MIN_VALUE)).extracting(Interval::id).containsExactly(1L);
+        assertThat(intervals.fits(H9 + 40 * 60, H10, Long.MIN_VALUE, 1)).isTrue();
+        assertThat(intervals.fits(H9 + 30 * 60, H10, 1, 1)).isTrue();
+    }
+
+    @Test
+    void findsOverlapBehindLongerEarlierInterval() {
+        IntervalSet intervals = new IntervalSet();
+        intervals.add(1, H9, H12);
+        intervals.add(2, H9 + 1800, H10);
+        intervals.add(3, H10, H10 + 1800);
+
+        assertThat(intervals.overlapping(H11, H11 + 1800, Long.MIN_VALUE)).extracting(Interval::id).containsExactly(1L);
+    }
+
+    @Test
+    void respectsCapacity() {
+        IntervalSet intervals = new IntervalSet();
+        intervals.add(1, H9, H10);
+        intervals.add(2, H9 + 1800, H11);
+
+        assertThat(intervals.fits(H10, H11, Long.MIN_VALUE, 2)).isTrue();
+        assertThat(intervals.fits(H9 + 1800, H10, Long.MIN_VALUE, 2)).isFalse();
+        assertThat(intervals.conflicts(1)).extracting(Interval::id).containsExactly(1L, 2L);
+        assertThat(intervals.conflicts(2)).isEmpty();
+    }
+
+    @Test
+    void listsFreeWindowsOfMinimumLength() {
+        IntervalSet intervals = new IntervalSet();
+        intervals.add(1, H9, H9 + 1800);
+        intervals.add(2, H10, H10 + 1200);
+        intervals.add(3, H11, H12);
+
+        assertThat(intervals.freeWindows(H9, H12, 30 * 60, 1))
+                .containsExactly(new Interval(0, H9 + 1800, H10), new Interval(0, H10 + 1200, H11));
+    }
+
+    @Test
+    void replacesAndRemovesById() {
+        IntervalSet intervals = new IntervalSet();
+        intervals.add(1, H9, H10);
+        intervals.add(1, H11, H12);
+
+        assertThat(intervals.size()).isEqualTo(1);
+        assertThat(intervals.fits(H9, H10, Long.MIN_VALUE, 1)).isTrue();
+        assertThat(intervals.remove(1)).isTrue();
+        assertThat(intervals.size()).isZero();
+    }
+}